@@ -0,0 +1,75 @@
+package lk.bookrental.backend.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lk.bookrental.backend.config.BinaryEncodingConfig;
+import lk.bookrental.backend.dto.response.BookResponse;
+import lk.bookrental.backend.dto.response.NormalizedRentalsResponse;
+import lk.bookrental.backend.dto.response.RentalResponse;
+import lk.bookrental.backend.model.AvailabilityStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// serializes GET /api/rentals bodies in each encoding and shape; the payload size of each combination is
+// printed once per fork, next to the timings
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RentalSerializationBenchmark {
+
+    @Param({"10000", "100000"})
+    private int rentalCount;
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"nested", "normalized"})
+    private String shape;
+
+    private ObjectMapper objectMapper;
+    private List<RentalResponse> rentals;
+
+    @Setup
+    public void setup() throws Exception {
+        // the mappers the HTTP message converters use, built from the same defaults Spring Boot applies
+        BinaryEncodingConfig encodings = new BinaryEncodingConfig();
+        objectMapper = switch (format) {
+            case "cbor" -> encodings.cborHttpMessageConverter(Jackson2ObjectMapperBuilder.json()).getObjectMapper();
+            case "smile" -> encodings.smileHttpMessageConverter(Jackson2ObjectMapperBuilder.json()).getObjectMapper();
+            default -> Jackson2ObjectMapperBuilder.json().build();
+        };
+
+        rentals = new ArrayList<>(rentalCount);
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < rentalCount; i++) {
+            BookResponse book = new BookResponse((long) i % 1000, "Title " + (i % 1000), "Author " + (i % 200),
+                    "Genre " + (i % 20), AvailabilityStatus.UNAVAILABLE);
+            rentals.add(new RentalResponse((long) i, "user" + (i % 300), today.minusDays(i % 60),
+                    i % 2 == 0 ? today : null, today.minusDays(i % 60).plusDays(14), null, book));
+        }
+        System.out.printf("%n%s/%s, %d rentals: %,d bytes%n", format, shape, rentalCount, write().length);
+    }
+
+    @Benchmark
+    public byte[] write() throws Exception {
+        Object body = "normalized".equals(shape) ? NormalizedRentalsResponse.of(rentals) : rentals;
+        return objectMapper.writeValueAsBytes(body);
+    }
+}
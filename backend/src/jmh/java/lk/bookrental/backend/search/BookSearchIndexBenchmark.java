@@ -0,0 +1,80 @@
+package lk.bookrental.backend.search;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class BookSearchIndexBenchmark {
+
+    private static final String[] WORDS = {"shadow", "river", "empire", "garden", "winter", "silent", "iron",
+            "crown", "ocean", "glass", "storm", "forest", "mirror", "ember", "harbor", "secret", "northern",
+            "lantern", "paper", "wolf", "golden", "hollow", "midnight", "city", "letters", "orchard"};
+    private static final String[] AUTHORS = {"Ngozi Adichie", "Margaret Atwood", "Haruki Murakami",
+            "Kazuo Ishiguro", "Toni Morrison", "Ursula Le Guin", "Orhan Pamuk", "Hilary Mantel"};
+    private static final String[] GENRES = {"Fiction", "Sci-Fi", "Fantasy", "Mystery", "History", "Poetry"};
+
+    @Param({"1000000"})
+    private int catalogSize;
+
+    private BookSearchIndex index;
+
+    @Setup
+    public void setup() {
+        index = new BookSearchIndex();
+        for (int i = 0; i < catalogSize; i++) {
+            String title = WORDS[i % WORDS.length] + " " + WORDS[(i / WORDS.length) % WORDS.length] + " " + i;
+            index.index((long) i + 1, title, AUTHORS[i % AUTHORS.length] + " " + (i % 5000), GENRES[i % GENRES.length]);
+        }
+    }
+
+    @Benchmark
+    public List<Long> exactRareToken() {
+        return index.search("424242", 20);
+    }
+
+    @Benchmark
+    public List<Long> autocompletePrefix() {
+        return index.search("atwood 4217", 20);
+    }
+
+    // in about one title in thirteen, some 77k postings; answered from the term's precomputed leaders
+    @Benchmark
+    public List<Long> commonToken() {
+        return index.search("shadow", 20);
+    }
+
+    // expands to four title words and "sci", a genre prefix that scores nothing, some 470k postings; answered by
+    // merging the leaders of those terms
+    @Benchmark
+    public List<Long> shortPrefix() {
+        return index.search("s", 20);
+    }
+
+    // re-indexing an unchanged book, as after every checkout
+    @Benchmark
+    public void reindexUnchanged() {
+        index.index(424242L, "orchard harbor 424241", "Margaret Atwood 4241", "Poetry");
+    }
+
+    @Benchmark
+    public List<Long> twoWordTitle() {
+        return index.search("winter lantern 99", 20);
+    }
+}
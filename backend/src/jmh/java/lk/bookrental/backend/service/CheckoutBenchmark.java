@@ -0,0 +1,68 @@
+package lk.bookrental.backend.service;
+
+import lk.bookrental.backend.BackendApplication;
+import lk.bookrental.backend.dto.request.RentalRequest;
+import lk.bookrental.backend.dto.response.RentalResponse;
+import lk.bookrental.backend.model.AvailabilityStatus;
+import lk.bookrental.backend.model.Book;
+import lk.bookrental.backend.repository.BookRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+// end-to-end createRental through the Spring context against the in-memory H2 database from src/test/resources
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CheckoutBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private RentalService rentalService;
+    private BookRepository bookRepository;
+    private Long bookId;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = new SpringApplicationBuilder(BackendApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.jpa.show-sql=false", "logging.level.root=WARN")
+                .run();
+        rentalService = context.getBean(RentalService.class);
+        bookRepository = context.getBean(BookRepository.class);
+    }
+
+    // a fresh book per checkout keeps every invocation on the success path; the insert is not measured
+    @Setup(Level.Invocation)
+    public void newBook() {
+        bookId = bookRepository.save(Book.builder().title("Benchmark").author("Author").genre("Genre")
+                .availabilityStatus(AvailabilityStatus.AVAILABLE).build()).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public RentalResponse createRental() {
+        return rentalService.createRental(new RentalRequest("reader", LocalDate.now(), null, bookId));
+    }
+}
@@ -0,0 +1,51 @@
+package lk.bookrental.backend.service.impl;
+
+import lk.bookrental.backend.dto.response.BookResponse;
+import lk.bookrental.backend.model.Book;
+import lk.bookrental.backend.search.BookSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookServiceBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    private int catalogSize;
+
+    private BookServiceImpl bookService;
+    private Book book;
+
+    @Setup
+    public void setup() {
+        List<Book> books = RepositoryStubs.books(catalogSize);
+        bookService = new BookServiceImpl(RepositoryStubs.bookRepository(books), new BookSearchIndex(), event -> { });
+        book = books.get(books.size() / 2);
+    }
+
+    @Benchmark
+    public BookResponse toResponse() {
+        return ResponseMapper.toResponse(book);
+    }
+
+    @Benchmark
+    public List<BookResponse> getAllBooks() {
+        return bookService.getAllBooks();
+    }
+}
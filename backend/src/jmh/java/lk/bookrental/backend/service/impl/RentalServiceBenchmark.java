@@ -0,0 +1,40 @@
+package lk.bookrental.backend.service.impl;
+
+import lk.bookrental.backend.dto.response.RentalResponse;
+import lk.bookrental.backend.model.Book;
+import lk.bookrental.backend.model.Rental;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RentalServiceBenchmark {
+
+    private Rental rental;
+
+    @Setup
+    public void setup() {
+        Book book = RepositoryStubs.books(1).get(0);
+        rental = Rental.builder().id(1L).username("reader").rentalDate(LocalDate.now()).book(book).build();
+    }
+
+    @Benchmark
+    public RentalResponse toResponse() {
+        return ResponseMapper.toResponse(rental);
+    }
+}
@@ -0,0 +1,43 @@
+package lk.bookrental.backend.service.impl;
+
+import lk.bookrental.backend.model.AvailabilityStatus;
+import lk.bookrental.backend.model.Book;
+import lk.bookrental.backend.repository.BookRepository;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// in-memory repository stand-ins, so service benchmarks measure mapping rather than a database or a mocking framework
+final class RepositoryStubs {
+
+    private RepositoryStubs() {
+    }
+
+    static BookRepository bookRepository(List<Book> books) {
+        Map<Long, Book> byId = books.stream().collect(Collectors.toMap(Book::getId, Function.identity()));
+        return (BookRepository) Proxy.newProxyInstance(BookRepository.class.getClassLoader(),
+                new Class<?>[]{BookRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findAll" -> books;
+                    case "findById" -> Optional.ofNullable(byId.get((Long) args[0]));
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    static List<Book> books(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> Book.builder()
+                        .id((long) i + 1)
+                        .title("Title " + i)
+                        .author("Author " + (i % 500))
+                        .genre("Genre " + (i % 20))
+                        .availabilityStatus(i % 3 == 0 ? AvailabilityStatus.UNAVAILABLE : AvailabilityStatus.AVAILABLE)
+                        .build())
+                .toList();
+    }
+}
@@ -0,0 +1,266 @@
+package lk.bookrental.backend.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lk.bookrental.backend.admission.AdmissionProperties.ClientLimit;
+import lk.bookrental.backend.admission.AdmissionProperties.Priority;
+import lk.bookrental.backend.admission.AdmissionProperties.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Turns requests away before they reach a controller, rather than letting them queue for threads and
+ * connections. Three checks run in order, and the first that fails sheds the request:
+ * <ol>
+ *     <li>the client's token bucket for the route is empty: 429;</li>
+ *     <li>the route already has {@code max-concurrent} requests in flight: 503;</li>
+ *     <li>the server is past the share of {@code bookrental.admission.max-concurrent} the route's priority
+ *     may use: 503. Routes that are not {@code shared} skip this check and do not count towards it.</li>
+ * </ol>
+ * Every refusal carries {@code Retry-After} and is counted in {@code bookrental.admission.shed}.
+ */
+public class AdmissionFilter extends OncePerRequestFilter implements Ordered {
+
+    private static final String DEFAULT_ROUTE = "default";
+
+    private final List<RouteLimiter> routes = new ArrayList<>();
+    private final RouteLimiter defaultRoute;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final int maxConcurrent;
+    private final String clientHeader;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    public AdmissionFilter(AdmissionProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.maxConcurrent = properties.maxConcurrent();
+        this.clientHeader = properties.clientHeader();
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        properties.routes().forEach((name, route) -> routes.add(new RouteLimiter(name, route)));
+        this.defaultRoute = new RouteLimiter(DEFAULT_ROUTE, new Route(null, null, null, Priority.NORMAL, null, null, null, null, true));
+        Gauge.builder("bookrental.admission.in.flight", inFlight, AtomicInteger::get)
+                .description("Requests admitted and not yet completed")
+                .register(meterRegistry);
+    }
+
+    // only the API is admission controlled; actuator endpoints must keep answering under load
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+
+    // after the observation filter, so shed requests still show up in http.server.requests
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 10;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RouteLimiter route = route(request);
+        long waitNanos = route.takeToken(client(request));
+        if (waitNanos > 0) {
+            long retryAfter = Math.max(1, (waitNanos + 999_999_999) / 1_000_000_000);
+            shed(response, route, "rate", HttpStatus.TOO_MANY_REQUESTS, retryAfter, "Too many requests, please retry later");
+            return;
+        }
+        if (!route.tryEnter()) {
+            shed(response, route, "concurrency", HttpStatus.SERVICE_UNAVAILABLE, 1, "Too many requests of this kind in progress, please retry");
+            return;
+        }
+        if (route.shared && inFlight.incrementAndGet() > route.priority.limit(maxConcurrent)) {
+            inFlight.decrementAndGet();
+            route.exit();
+            shed(response, route, "overload", HttpStatus.SERVICE_UNAVAILABLE, 1, "Server is busy, please retry");
+            return;
+        }
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            async = request.isAsyncStarted();
+        } finally {
+            if (async) {
+                // streamed responses hold their permits until the stream ends
+                request.getAsyncContext().addListener(new ReleaseOnCompletion(route));
+            } else {
+                release(route);
+            }
+        }
+    }
+
+    private void release(RouteLimiter route) {
+        if (route.shared) {
+            inFlight.decrementAndGet();
+        }
+        route.exit();
+    }
+
+    private RouteLimiter route(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        for (RouteLimiter route : routes) {
+            if (route.matches(request, path)) {
+                return route;
+            }
+        }
+        return defaultRoute;
+    }
+
+    private String client(HttpServletRequest request) {
+        String client = request.getHeader(clientHeader);
+        return client != null && !client.isBlank() ? client : request.getRemoteAddr();
+    }
+
+    private void shed(HttpServletResponse response, RouteLimiter route, String reason, HttpStatus status, long retryAfterSeconds,
+                      String message) throws IOException {
+        Counter.builder("bookrental.admission.shed")
+                .description("Requests refused by admission control")
+                .tag("route", route.name)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), Map.of("error", message));
+    }
+
+    private final class RouteLimiter {
+
+        private final String name;
+        private final List<String> methods;
+        private final List<PathPattern> paths = new ArrayList<>();
+        private final List<String> params;
+        private final Priority priority;
+        private final boolean shared;
+        private final Semaphore permits;
+        private final Route route;
+        private final Cache<String, TokenBucket> buckets;
+
+        RouteLimiter(String name, Route route) {
+            this.name = name;
+            this.route = route;
+            this.methods = route.methods();
+            route.paths().forEach(path -> paths.add(PathPatternParser.defaultInstance.parse(path)));
+            this.params = route.params();
+            this.priority = route.priority();
+            this.shared = route.shared();
+            this.permits = route.maxConcurrent() != null ? new Semaphore(route.maxConcurrent()) : null;
+            // idle clients' buckets are full again by the time they expire, so dropping them changes nothing
+            this.buckets = route.rate() != null || !route.clients().isEmpty()
+                    ? Caffeine.newBuilder().maximumSize(100_000).expireAfterAccess(Duration.ofMinutes(10)).build()
+                    : null;
+            if (permits != null) {
+                Gauge.builder("bookrental.admission.route.available", permits, Semaphore::availablePermits)
+                        .description("Concurrency permits of the route not currently held")
+                        .tag("route", name)
+                        .register(meterRegistry);
+            }
+        }
+
+        boolean matches(HttpServletRequest request, PathContainer path) {
+            if (!methods.isEmpty() && methods.stream().noneMatch(request.getMethod()::equalsIgnoreCase)) {
+                return false;
+            }
+            if (!paths.isEmpty() && paths.stream().noneMatch(pattern -> pattern.matches(path))) {
+                return false;
+            }
+            return params.stream().allMatch(condition -> paramMatches(request, condition));
+        }
+
+        long takeToken(String client) {
+            if (buckets == null) {
+                return 0;
+            }
+            ClientLimit override = route.clients().get(client);
+            Double rate = override != null ? Double.valueOf(override.rate()) : route.rate();
+            if (rate == null) {
+                return 0;
+            }
+            Integer burst = override != null ? override.burst() : route.burst();
+            double capacity = burst != null ? burst : Math.max(1, rate);
+            return buckets.get(client, c -> new TokenBucket(rate, capacity, System.nanoTime())).tryTake(System.nanoTime());
+        }
+
+        boolean tryEnter() {
+            return permits == null || permits.tryAcquire();
+        }
+
+        void exit() {
+            if (permits != null) {
+                permits.release();
+            }
+        }
+
+        private static boolean paramMatches(HttpServletRequest request, String condition) {
+            if (condition.startsWith("!")) {
+                return request.getParameter(condition.substring(1)) == null;
+            }
+            int eq = condition.indexOf('=');
+            if (eq < 0) {
+                return request.getParameter(condition) != null;
+            }
+            return condition.substring(eq + 1).equals(request.getParameter(condition.substring(0, eq)));
+        }
+    }
+
+    private final class ReleaseOnCompletion implements AsyncListener {
+
+        private final RouteLimiter route;
+        private final AtomicInteger released = new AtomicInteger();
+
+        ReleaseOnCompletion(RouteLimiter route) {
+            this.route = route;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            releaseOnce();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            releaseOnce();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            releaseOnce();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void releaseOnce() {
+            if (released.getAndIncrement() == 0) {
+                release(route);
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package lk.bookrental.backend.admission;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admission control settings, under {@code bookrental.admission}.
+ *
+ * @param maxConcurrent requests handled at once across all routes; lower priorities get a smaller share
+ * @param clientHeader  header naming the client for rate limits; the remote address is used without it
+ * @param routes        route classes by name, checked in order; the first match wins and anything
+ *                      unmatched is treated as {@link Priority#NORMAL} with no further limits
+ */
+@ConfigurationProperties("bookrental.admission")
+public record AdmissionProperties(@DefaultValue("200") int maxConcurrent,
+                                  @DefaultValue("X-Client-Id") String clientHeader,
+                                  Map<String, Route> routes) {
+
+    public AdmissionProperties {
+        routes = routes != null ? routes : Map.of();
+    }
+
+    /**
+     * @param methods       HTTP methods, all if empty
+     * @param paths         path patterns such as {@code /api/rentals/{id}}
+     * @param params        query parameter conditions as in {@code @RequestMapping(params)}: {@code name},
+     *                      {@code !name} or {@code name=value}
+     * @param maxConcurrent requests of this route in flight at once, unlimited if null
+     * @param rate          requests per second each client may make, unlimited if null
+     * @param burst         requests a client may make at once before the rate applies; defaults to the rate
+     * @param clients       per-client overrides of rate and burst, by client id
+     * @param shared        whether the route's requests count against the server-wide {@code max-concurrent}; off
+     *                      for long-lived streams such as the change feed, which hold no thread once started and
+     *                      would otherwise use up the share of every other route. Such a route needs its own
+     *                      {@code max-concurrent}
+     */
+    public record Route(List<String> methods,
+                        List<String> paths,
+                        List<String> params,
+                        @DefaultValue("NORMAL") Priority priority,
+                        Integer maxConcurrent,
+                        Double rate,
+                        Integer burst,
+                        Map<String, ClientLimit> clients,
+                        @DefaultValue("true") boolean shared) {
+
+        public Route {
+            methods = methods != null ? methods : List.of();
+            paths = paths != null ? paths : List.of();
+            params = params != null ? params : List.of();
+            clients = clients != null ? clients : Map.of();
+        }
+    }
+
+    public record ClientLimit(double rate, Integer burst) {
+    }
+
+    /**
+     * How much of {@code max-concurrent} a route may still start requests in. Bulk reads are turned away
+     * while half of it is in use, so checkouts and other cheap writes always find room.
+     */
+    public enum Priority {
+        CRITICAL(1.0), NORMAL(0.8), BULK(0.5);
+
+        private final double share;
+
+        Priority(double share) {
+            this.share = share;
+        }
+
+        int limit(int maxConcurrent) {
+            return Math.max(1, (int) (maxConcurrent * share));
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package lk.bookrental.backend.admission;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+// refills continuously at `rate` tokens per second up to `burst`; one token per request
+final class TokenBucket {
+
+    private final double ratePerNano;
+    private final double burst;
+    private final ReentrantLock lock = new ReentrantLock();
+    private double tokens;
+    private long refilledAt;
+
+    TokenBucket(double rate, double burst, long now) {
+        this.ratePerNano = rate / 1_000_000_000d;
+        this.burst = burst;
+        this.tokens = burst;
+        this.refilledAt = now;
+    }
+
+    // 0 if a token was taken, otherwise the nanos until one is available
+    long tryTake(long now) {
+        lock.lock();
+        try {
+            tokens = Math.min(burst, tokens + (now - refilledAt) * ratePerNano);
+            refilledAt = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / ratePerNano);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package lk.bookrental.backend.archive;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lk.bookrental.backend.model.Rental;
+import lk.bookrental.backend.repository.ArchivedRentalRepository;
+import lk.bookrental.backend.repository.RentalRepository;
+import lk.bookrental.backend.sync.ChangeVersions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Moves rentals returned longer ago than {@code bookrental.archive.after} from {@code rentals} to
+ * {@code rentals_archive}, so the live table and its indexes only hold rentals that can still change.
+ * <p>
+ * Candidates are read a page at a time from {@code idx_rentals_open_due}. Each page is moved in its own short
+ * transaction: one {@code insert ... select} copies the rows, and one {@code delete} removes them, both
+ * re-checking the return date. On MySQL the copy locks the rows it reads, so a rental edited meanwhile either
+ * waits for the page to commit or is no longer matched. If the two counts still disagree, the page is rolled
+ * back and the run stops; the next run picks the rows up again. Archived rentals keep their ids and are
+ * neither tombstoned nor sent on the change feed: they were not deleted, just moved.
+ */
+@Component
+@ConditionalOnProperty(name = "bookrental.archive.enabled", matchIfMissing = true)
+public class RentalArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(RentalArchiver.class);
+
+    private final RentalRepository rentalRepository;
+    private final ArchivedRentalRepository archivedRentalRepository;
+    private final ChangeVersions changeVersions;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter archived;
+    private final Duration after;
+    private final int pageSize;
+
+    public RentalArchiver(RentalRepository rentalRepository, ArchivedRentalRepository archivedRentalRepository,
+                          ChangeVersions changeVersions, PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry,
+                          @Value("${bookrental.archive.after:365d}") Duration after,
+                          @Value("${bookrental.archive.page-size:500}") int pageSize) {
+        this.rentalRepository = rentalRepository;
+        this.archivedRentalRepository = archivedRentalRepository;
+        this.changeVersions = changeVersions;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archived = Counter.builder("bookrental.rentals.archived")
+                .description("Returned rentals moved to the archive")
+                .register(meterRegistry);
+        this.after = after;
+        this.pageSize = pageSize;
+    }
+
+    @Scheduled(initialDelayString = "${bookrental.archive.initial-delay:5m}",
+            fixedDelayString = "${bookrental.archive.interval:1h}")
+    public void scheduledRun() {
+        int count = archive(LocalDate.now().minusDays(after.toDays()));
+        if (count > 0) {
+            log.info("Archived {} returned rentals", count);
+        }
+    }
+
+    /**
+     * Moves every rental returned before {@code cutoff} to the archive and returns how many were moved.
+     */
+    public int archive(LocalDate cutoff) {
+        int total = 0;
+        while (true) {
+            List<Long> ids = rentalRepository.findArchivable(cutoff, Limit.of(pageSize));
+            if (ids.isEmpty()) {
+                return total;
+            }
+            int moved;
+            try {
+                moved = transactionTemplate.execute(status -> move(ids, cutoff));
+            } catch (IllegalStateException e) {
+                log.warn("Stopped archiving rentals: {}", e.getMessage());
+                return total;
+            }
+            // nothing left to move in this page means the rows changed under us; leave them to the next run
+            if (moved == 0) {
+                return total;
+            }
+            archived.increment(moved);
+            total += moved;
+            if (ids.size() < pageSize) {
+                return total;
+            }
+        }
+    }
+
+    private int move(List<Long> ids, LocalDate cutoff) {
+        // the rental list ETags cover the live table, which is about to lose rows; joining the write moves them on
+        // commit, and the version stamped on the archived rows moves them on other instances
+        long changeVersion = changeVersions.current(Rental.class);
+        int copied = archivedRentalRepository.copyFromLive(ids, cutoff, changeVersion, Instant.now());
+        int deleted = rentalRepository.deleteArchived(ids, cutoff);
+        if (copied != deleted) {
+            throw new IllegalStateException("copied " + copied + " rentals but deleted " + deleted);
+        }
+        return copied;
+    }
+}
@@ -0,0 +1,21 @@
+package lk.bookrental.backend.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lk.bookrental.backend.admission.AdmissionFilter;
+import lk.bookrental.backend.admission.AdmissionProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(AdmissionProperties.class)
+@ConditionalOnProperty(name = "bookrental.admission.enabled", matchIfMissing = true)
+public class AdmissionConfig {
+
+    @Bean
+    public AdmissionFilter admissionFilter(AdmissionProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        return new AdmissionFilter(properties, objectMapper, meterRegistry);
+    }
+}
@@ -0,0 +1,29 @@
+package lk.bookrental.backend.config;
+
+import lk.bookrental.backend.event.BookAvailabilityChangedEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+@Component
+public class BookCacheInvalidator {
+
+    private final CacheManager cacheManager;
+
+    public BookCacheInvalidator(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @EventListener
+    public void onAvailabilityChanged(BookAvailabilityChangedEvent event) {
+        Cache books = cacheManager.getCache(CacheConfig.BOOKS);
+        if (books != null) {
+            books.evict(event.bookId());
+        }
+        Cache pages = cacheManager.getCache(CacheConfig.BOOK_PAGES);
+        if (pages != null) {
+            pages.clear();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package lk.bookrental.backend.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String BOOKS = "books";
+    public static final String BOOK_PAGES = "bookPages";
+    public static final String STATS = "stats";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${bookrental.cache.books.maximum-size:10000}") long booksMaxSize,
+                                     @Value("${bookrental.cache.books.ttl:10m}") Duration booksTtl,
+                                     @Value("${bookrental.cache.book-pages.maximum-size:500}") long pagesMaxSize,
+                                     @Value("${bookrental.cache.book-pages.ttl:30s}") Duration pagesTtl,
+                                     @Value("${bookrental.cache.stats.ttl:5s}") Duration statsTtl) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(BOOKS, Caffeine.newBuilder()
+                .maximumSize(booksMaxSize)
+                .expireAfterWrite(booksTtl)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(BOOK_PAGES, Caffeine.newBuilder()
+                .maximumSize(pagesMaxSize)
+                .expireAfterWrite(pagesTtl)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(STATS, Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(statsTtl)
+                .recordStats()
+                .build());
+        // evictions issued inside a transaction are applied after commit, so a concurrent reader
+        // cannot re-cache the pre-commit row right after we evict it
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -0,0 +1,80 @@
+package lk.bookrental.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lk.bookrental.backend.db.ReadRouting;
+import lk.bookrental.backend.db.ReadYourWritesFilter;
+import lk.bookrental.backend.db.ReplicaAwareTransactionManager;
+import lk.bookrental.backend.db.ReplicaRoutingDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+import javax.sql.DataSource;
+
+/**
+ * Read replica support, active once {@code bookrental.datasource.replica.url} is set.
+ * <p>
+ * The primary pool is configured by {@code spring.datasource.*} as usual and the replica pool by
+ * {@code bookrental.datasource.replica.*}. Everything injects the routing DataSource, which hands out
+ * replica connections only to the read-only transactions {@link ReadRouting} sends there.
+ */
+@Configuration
+@ConditionalOnProperty(name = "bookrental.datasource.replica.url")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("bookrental.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${bookrental.datasource.replica.url}") String url,
+                                              @Value("${bookrental.datasource.replica.username:${spring.datasource.username:}}") String username,
+                                              @Value("${bookrental.datasource.replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        // replica connections only ever serve read-only transactions
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica, ReadRouting readRouting) {
+        return new ReplicaRoutingDataSource(primary, replica, readRouting);
+    }
+
+    // replaces the transaction manager Spring Boot would otherwise create, customized the same way
+    @Bean
+    public JpaTransactionManager transactionManager(ObjectProvider<TransactionManagerCustomizers> customizers,
+                                                    ReadRouting readRouting) {
+        JpaTransactionManager transactionManager = new ReplicaAwareTransactionManager(readRouting);
+        customizers.ifAvailable(c -> c.customize(transactionManager));
+        return transactionManager;
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(ReadRouting readRouting) {
+        return new ReadYourWritesFilter(readRouting);
+    }
+}
@@ -0,0 +1,12 @@
+package lk.bookrental.backend.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// off in tests, which run the scheduled jobs by hand
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "bookrental.scheduling.enabled", matchIfMissing = true)
+public class SchedulingConfig {
+}
@@ -0,0 +1,73 @@
+package lk.bookrental.backend.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ObjectUtils;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+/**
+ * Hibernate second-level and query cache, held in Caffeine through JCache.
+ * <p>
+ * Every region is created here with an explicit bound, and Hibernate is told to fail rather than create
+ * an unbounded one for a region nobody configured. Each application context gets its own JCache manager,
+ * so test contexts sharing a JVM never see each other's entries.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    public static final String BOOK_REGION = "book";
+    public static final String CATALOG_QUERY_REGION = "book-catalog";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(@Value("${bookrental.cache.l2.book.maximum-size:10000}") long bookMaxSize,
+                                              @Value("${bookrental.cache.l2.book.ttl:10m}") Duration bookTtl,
+                                              @Value("${bookrental.cache.l2.catalog-queries.maximum-size:1000}") long queriesMaxSize,
+                                              @Value("${bookrental.cache.l2.catalog-queries.ttl:10m}") Duration queriesTtl) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("bookrental-l2-" + ObjectUtils.getIdentityHexString(this)), getClass().getClassLoader());
+        cacheManager.createCache(BOOK_REGION, region(bookMaxSize, bookTtl));
+        cacheManager.createCache(CATALOG_QUERY_REGION, region(queriesMaxSize, queriesTtl));
+        // required by the query cache; only our named region is used for results
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, region(100L, queriesTtl));
+        // one entry per table, and it must never be evicted ahead of the query results it guards
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, region(null, null));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            // feeds the hibernate.* cache metrics
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> region(Long maximumSize, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        if (maximumSize != null) {
+            configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        }
+        if (ttl != null) {
+            configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        }
+        configuration.setNativeStatisticsEnabled(true);
+        return configuration;
+    }
+}
@@ -0,0 +1,69 @@
+package lk.bookrental.backend.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lk.bookrental.backend.db.BulkheadDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+// only active with spring.threads.virtual.enabled=true; on platform threads Tomcat's pool already bounds concurrency
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    public static BeanPostProcessor databaseBulkhead(Environment environment) {
+        int permits = environment.getProperty("bookrental.db.bulkhead.permits", Integer.class,
+                environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10));
+        int maxWaiting = environment.getProperty("bookrental.db.bulkhead.max-waiting", Integer.class, 10_000);
+        Duration maxWait = environment.getProperty("bookrental.db.bulkhead.max-wait", Duration.class, Duration.ofSeconds(5));
+        return new BulkheadPostProcessor(permits, maxWaiting, maxWait);
+    }
+
+    @Bean
+    public MeterBinder databaseBulkheadMetrics(DataSource dataSource) throws SQLException {
+        BulkheadDataSource bulkhead = dataSource.unwrap(BulkheadDataSource.class);
+        return registry -> {
+            Gauge.builder("bookrental.db.bulkhead.available", bulkhead, BulkheadDataSource::availablePermits)
+                    .description("Connection permits not currently held")
+                    .register(registry);
+            Gauge.builder("bookrental.db.bulkhead.waiting", bulkhead, BulkheadDataSource::waiting)
+                    .description("Threads queued for a connection permit")
+                    .register(registry);
+            FunctionCounter.builder("bookrental.db.bulkhead.rejected", bulkhead, BulkheadDataSource::rejected)
+                    .description("Connection requests refused because the queue was full or the wait timed out")
+                    .register(registry);
+        };
+    }
+
+    private record BulkheadPostProcessor(int permits, int maxWaiting, Duration maxWait)
+            implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            // a routing DataSource only hands out connections of its pools, and those are wrapped themselves
+            if (bean instanceof DataSource dataSource && !(bean instanceof BulkheadDataSource)
+                    && !(bean instanceof AbstractRoutingDataSource)) {
+                return new BulkheadDataSource(dataSource, permits, maxWaiting, maxWait);
+            }
+            return bean;
+        }
+
+        // wrap last, so the bulkhead sits in front of any other DataSource decorators
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
+}
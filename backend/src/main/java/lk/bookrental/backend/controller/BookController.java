@@ -1,21 +1,51 @@
 package lk.bookrental.backend.controller;
 
+import lk.bookrental.backend.db.ReadRouting;
+import lk.bookrental.backend.dto.request.BookBatchItem;
+import lk.bookrental.backend.dto.request.BookPageRequest;
 import lk.bookrental.backend.dto.request.BookRequest;
+import lk.bookrental.backend.dto.response.BatchResponse;
 import lk.bookrental.backend.dto.response.BookResponse;
+import lk.bookrental.backend.dto.response.CursorPageResponse;
+import lk.bookrental.backend.dto.response.DeltaResponse;
+import lk.bookrental.backend.dto.response.ImportJobResponse;
+import lk.bookrental.backend.model.Book;
+import lk.bookrental.backend.service.BatchService;
+import lk.bookrental.backend.service.BookImportService;
 import lk.bookrental.backend.service.BookService;
+import lk.bookrental.backend.service.SyncService;
+import lk.bookrental.backend.sync.ChangeVersions;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.InputStream;
+import java.net.URI;
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/books")
 public class BookController {
 
     private final BookService bookService;
+    private final BatchService batchService;
+    private final BookImportService bookImportService;
+    private final SyncService syncService;
+    private final ChangeVersions changeVersions;
+    private final ReadRouting readRouting;
 
-    public BookController(BookService bookService) {
+    public BookController(BookService bookService, BatchService batchService, BookImportService bookImportService,
+                          SyncService syncService, ChangeVersions changeVersions, ReadRouting readRouting) {
         this.bookService = bookService;
+        this.batchService = batchService;
+        this.bookImportService = bookImportService;
+        this.syncService = syncService;
+        this.changeVersions = changeVersions;
+        this.readRouting = readRouting;
     }
 
     @PostMapping
@@ -23,6 +53,31 @@ public class BookController {
         return ResponseEntity.ok(bookService.createBook(request));
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<BatchResponse<BookResponse>> batch(@RequestBody List<BookBatchItem> items) {
+        return ResponseEntity.ok(batchService.saveBooks(items));
+    }
+
+    // bulk catalog load from a text/csv or application/x-ndjson body; runs in the background, poll the Location for progress
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ImportJobResponse> importBooks(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                         InputStream body) {
+        ImportJobResponse job = bookImportService.startImport(body, contentType);
+        return ResponseEntity.accepted().location(URI.create("/api/books/import/" + job.getId())).body(job);
+    }
+
+    @GetMapping("/import/{id}")
+    public ResponseEntity<ImportJobResponse> getImport(@PathVariable String id) {
+        return ResponseEntity.ok(bookImportService.getImport(id));
+    }
+
+    // ranked title/author/genre search; the last word may be partial, so it also serves autocomplete
+    @GetMapping("/search")
+    public ResponseEntity<List<BookResponse>> search(@RequestParam("q") String query,
+                                                     @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(bookService.searchBooks(query, limit));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<BookResponse> update(@PathVariable Long id, @RequestBody BookRequest request) {
         return ResponseEntity.ok(bookService.updateBook(id, request));
@@ -35,13 +90,42 @@ public class BookController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<BookResponse> getById(@PathVariable Long id) {
-        return ResponseEntity.ok(bookService.getBookById(id));
+    public ResponseEntity<BookResponse> getById(@PathVariable Long id, WebRequest webRequest) {
+        return conditional(webRequest, () -> bookService.getBookById(id));
     }
 
     @GetMapping
-    public ResponseEntity<List<BookResponse>> getAll() {
-        return ResponseEntity.ok(bookService.getAllBooks());
+    public ResponseEntity<CursorPageResponse<BookResponse>> getPage(BookPageRequest request, WebRequest webRequest) {
+        return conditional(webRequest, () -> bookService.getBookPage(request));
+    }
+
+    // delta sync: books changed or deleted since a version returned by a previous call (start with since=0)
+    @GetMapping(params = "since")
+    public ResponseEntity<DeltaResponse<BookResponse>> getChanges(@RequestParam long since,
+                                                                  @RequestParam(required = false) Long after,
+                                                                  @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(syncService.getBookChanges(since, after, limit));
+    }
+
+    // full unpaged listing, kept for clients that explicitly opt in with ?unpaged=true
+    @GetMapping(params = "unpaged=true")
+    public ResponseEntity<List<BookResponse>> getAll(WebRequest webRequest) {
+        return conditional(webRequest, bookService::getAllBooks);
+    }
+
+    // the ETag only changes when a book write commits, so a matching If-None-Match gets a 304
+    // without touching the service, cache or database; no-cache makes clients revalidate every time
+    // and Vary: Accept keeps JSON, CBOR and Smile bodies apart in shared caches; each encoding has its own ETag
+    private <T> ResponseEntity<T> conditional(WebRequest webRequest, Supplier<T> body) {
+        // a replica may not have the latest change yet; never tag what it returns with the new ETag
+        if (readRouting.mayBeStale(Book.class)) {
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).varyBy(HttpHeaders.ACCEPT).body(body.get());
+        }
+        String etag = EncodingETags.etag(changeVersions.etag(Book.class), webRequest);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).varyBy(HttpHeaders.ACCEPT).body(body.get());
     }
 }
 
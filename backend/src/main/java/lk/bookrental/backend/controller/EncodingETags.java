@@ -0,0 +1,59 @@
+package lk.bookrental.backend.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+
+/**
+ * Strong ETags for responses that come in JSON, CBOR or Smile. The bodies differ byte for byte, so each encoding
+ * gets its own tag: the change version as is for JSON, with {@code -cbor} or {@code -smile} appended otherwise.
+ * <p>
+ * The encoding is picked from the {@code Accept} header the same way the message converters pick it: the
+ * highest quality wins, the first listed wins a tie, and wildcards fall back to JSON, which is registered first.
+ */
+final class EncodingETags {
+
+    private static final MediaType CBOR = MediaType.parseMediaType("application/cbor");
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    private EncodingETags() {
+    }
+
+    static String etag(String version, WebRequest webRequest) {
+        return version + suffix(webRequest.getHeader(HttpHeaders.ACCEPT));
+    }
+
+    private static String suffix(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return "";
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return "";
+        }
+        String suffix = "";
+        double best = 0;
+        for (MediaType mediaType : accepted) {
+            double quality = mediaType.getQualityValue();
+            if (quality <= best) {
+                continue;
+            }
+            if (mediaType.includes(MediaType.APPLICATION_JSON)) {
+                suffix = "";
+            } else if (mediaType.includes(CBOR)) {
+                suffix = "-cbor";
+            } else if (mediaType.includes(SMILE)) {
+                suffix = "-smile";
+            } else {
+                continue;
+            }
+            best = quality;
+        }
+        return suffix;
+    }
+}
@@ -1,21 +1,59 @@
 package lk.bookrental.backend.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lk.bookrental.backend.db.ReadRouting;
+import lk.bookrental.backend.dto.request.RentalBatchItem;
 import lk.bookrental.backend.dto.request.RentalRequest;
+import lk.bookrental.backend.dto.response.BatchResponse;
+import lk.bookrental.backend.dto.response.DeltaResponse;
+import lk.bookrental.backend.dto.response.NormalizedRentalsResponse;
 import lk.bookrental.backend.dto.response.RentalResponse;
+import lk.bookrental.backend.model.Book;
+import lk.bookrental.backend.model.Rental;
+import lk.bookrental.backend.service.BatchService;
 import lk.bookrental.backend.service.RentalService;
+import lk.bookrental.backend.service.SyncService;
+import lk.bookrental.backend.sync.ChangeVersions;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/rentals")
 public class RentalController {
 
     private final RentalService rentalService;
+    private final BatchService batchService;
+    private final SyncService syncService;
+    private final ChangeVersions changeVersions;
+    private final ReadRouting readRouting;
+    private final ObjectMapper objectMapper;
 
-    public RentalController(RentalService rentalService) {
+    public RentalController(RentalService rentalService, BatchService batchService, SyncService syncService,
+                            ChangeVersions changeVersions, ReadRouting readRouting, ObjectMapper objectMapper) {
         this.rentalService = rentalService;
+        this.batchService = batchService;
+        this.syncService = syncService;
+        this.changeVersions = changeVersions;
+        this.readRouting = readRouting;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
@@ -23,19 +61,84 @@ public class RentalController {
         return ResponseEntity.ok(rentalService.createRental(request));
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<BatchResponse<RentalResponse>> batch(@RequestBody List<RentalBatchItem> items) {
+        return ResponseEntity.ok(batchService.saveRentals(items));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<RentalResponse> update(@PathVariable Long id, @RequestBody RentalRequest request) {
         return ResponseEntity.ok(rentalService.updateRental(id, request));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<RentalResponse> getById(@PathVariable Long id) {
-        return ResponseEntity.ok(rentalService.getRentalById(id));
+    public ResponseEntity<RentalResponse> getById(@PathVariable Long id,
+                                                  @RequestParam(defaultValue = "false") boolean history,
+                                                  WebRequest webRequest) {
+        return conditional(webRequest, () -> rentalService.getRentalById(id, history));
     }
 
+    // history=true adds rentals archived after their return; without it, only the live table is read
     @GetMapping
-    public ResponseEntity<List<RentalResponse>> getAll() {
-        return ResponseEntity.ok(rentalService.getAllRentals());
+    public ResponseEntity<?> getAll(@RequestParam(defaultValue = "nested") String shape,
+                                    @RequestParam(defaultValue = "false") boolean history,
+                                    WebRequest webRequest) {
+        Function<List<RentalResponse>, Object> view = shape(shape);
+        return conditional(webRequest, () -> view.apply(rentalService.getAllRentals(history)));
+    }
+
+    // one user's rentals, newest first; the next page starts before the last item's rentalDate and id
+    @GetMapping(params = "username")
+    public ResponseEntity<?> getForUser(@RequestParam String username,
+                                        @RequestParam(defaultValue = "false") boolean active,
+                                        @RequestParam(required = false) LocalDate beforeDate,
+                                        @RequestParam(required = false) Long before,
+                                        @RequestParam(required = false) Integer limit,
+                                        @RequestParam(defaultValue = "nested") String shape,
+                                        @RequestParam(defaultValue = "false") boolean history,
+                                        WebRequest webRequest) {
+        Function<List<RentalResponse>, Object> view = shape(shape);
+        return conditional(webRequest,
+                () -> view.apply(rentalService.getUserRentals(username, active, beforeDate, before, limit, history)));
+    }
+
+    @GetMapping(value = "/active-count", params = "username")
+    public ResponseEntity<Map<String, Long>> getActiveCount(@RequestParam String username) {
+        return ResponseEntity.ok(Map.of("activeRentals", rentalService.countActiveRentals(username)));
+    }
+
+    // open rentals past their due date, oldest due first; the next page starts after the last item's dueDate and id
+    @GetMapping("/overdue")
+    public ResponseEntity<?> getOverdue(@RequestParam(required = false) LocalDate afterDue,
+                                        @RequestParam(required = false) Long after,
+                                        @RequestParam(required = false) Integer limit,
+                                        @RequestParam(defaultValue = "nested") String shape) {
+        Function<List<RentalResponse>, Object> view = shape(shape);
+        return ResponseEntity.ok(view.apply(rentalService.getOverdueRentals(afterDue, after, limit)));
+    }
+
+    // delta sync, same contract as GET /api/books?since=
+    @GetMapping(params = "since")
+    public ResponseEntity<DeltaResponse<RentalResponse>> getChanges(@RequestParam long since,
+                                                                    @RequestParam(required = false) Long after,
+                                                                    @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(syncService.getRentalChanges(since, after, limit));
+    }
+
+    // all rentals (with history=true, archived ones too), written row by row as it is read from the database so
+    // memory stays flat
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "ndjson") String format,
+                                                        @RequestParam(defaultValue = "false") boolean history) {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+            throw new IllegalArgumentException("Unsupported export format: " + format);
+        }
+        StreamingResponseBody body = csv ? out -> writeCsv(out, history) : out -> writeNdjson(out, history);
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=rentals." + (csv ? "csv" : "ndjson"))
+                .body(body);
     }
 
     @DeleteMapping("/{id}")
@@ -43,6 +146,74 @@ public class RentalController {
         rentalService.deleteRental(id);
         return ResponseEntity.noContent().build();
     }
-}
 
+    // rental responses embed their book, so the ETag moves with rental and book commits alike
+    private <T> ResponseEntity<T> conditional(WebRequest webRequest, Supplier<T> body) {
+        // a replica may not have the latest change yet; never tag what it returns with the new ETag
+        if (readRouting.mayBeStale(Rental.class, Book.class)) {
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).varyBy(HttpHeaders.ACCEPT).body(body.get());
+        }
+        String etag = EncodingETags.etag(changeVersions.etag(Rental.class, Book.class), webRequest);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).varyBy(HttpHeaders.ACCEPT).body(body.get());
+    }
+
+    // nested embeds a copy of the book in every rental; normalized sends each distinct book once
+    private static Function<List<RentalResponse>, Object> shape(String shape) {
+        if ("normalized".equalsIgnoreCase(shape)) {
+            return NormalizedRentalsResponse::of;
+        }
+        if (!"nested".equalsIgnoreCase(shape)) {
+            throw new IllegalArgumentException("Unsupported shape: " + shape);
+        }
+        return rentals -> rentals;
+    }
 
+    private void writeNdjson(OutputStream out, boolean history) throws IOException {
+        ObjectWriter rowWriter = objectMapper.writerFor(RentalResponse.class);
+        rentalService.exportRentals(history, rental -> {
+            try {
+                out.write(rowWriter.writeValueAsBytes(rental));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        out.flush();
+    }
+
+    private void writeCsv(OutputStream out, boolean history) throws IOException {
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("id,username,rentalDate,returnDate,bookId,title,author,genre,availabilityStatus\n");
+        rentalService.exportRentals(history, rental -> {
+            try {
+                writer.write(String.join(",",
+                        String.valueOf(rental.getId()),
+                        csvField(rental.getUsername()),
+                        String.valueOf(rental.getRentalDate()),
+                        rental.getReturnDate() != null ? rental.getReturnDate().toString() : "",
+                        String.valueOf(rental.getBook().getId()),
+                        csvField(rental.getBook().getTitle()),
+                        csvField(rental.getBook().getAuthor()),
+                        csvField(rental.getBook().getGenre()),
+                        String.valueOf(rental.getBook().getAvailabilityStatus())));
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,25 @@
+package lk.bookrental.backend.controller;
+
+import lk.bookrental.backend.dto.response.StatsResponse;
+import lk.bookrental.backend.service.StatsService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/stats")
+public class StatsController {
+
+    private final StatsService statsService;
+
+    public StatsController(StatsService statsService) {
+        this.statsService = statsService;
+    }
+
+    @GetMapping
+    public ResponseEntity<StatsResponse> get(@RequestParam(defaultValue = "false") boolean fresh) {
+        return ResponseEntity.ok(statsService.getStats(fresh));
+    }
+}
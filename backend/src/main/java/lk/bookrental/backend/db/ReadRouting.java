@@ -0,0 +1,91 @@
+package lk.bookrental.backend.db;
+
+import lk.bookrental.backend.sync.ChangeVersions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Decides which transactions read from the replica.
+ * <p>
+ * Only read-only transactions go to the replica. A transaction stays on the primary if it carries the
+ * {@link #PRIMARY} label, for readers that must see every commit such as delta sync, or if its thread is
+ * pinned to the primary. A request is pinned for {@code max-lag} after the same client wrote, so clients
+ * always read their own writes. The decision is made once, when the transaction begins, and covers all
+ * of its statements.
+ */
+@Component
+public class ReadRouting {
+
+    public static final String PRIMARY = "primary";
+
+    private final ThreadLocal<Boolean> pinned = new ThreadLocal<>();
+    private final ThreadLocal<Boolean> replicaRead = new ThreadLocal<>();
+    private final ChangeVersions changeVersions;
+    private final boolean enabled;
+    private final Duration maxLag;
+
+    // lazy: ChangeVersions reads through the routing DataSource, which needs this bean first
+    public ReadRouting(@Lazy ChangeVersions changeVersions,
+                       @Value("${bookrental.datasource.replica.url:}") String replicaUrl,
+                       @Value("${bookrental.datasource.replica.max-lag:5s}") Duration maxLag) {
+        this.changeVersions = changeVersions;
+        this.enabled = !replicaUrl.isBlank();
+        this.maxLag = maxLag;
+    }
+
+    public Duration maxLag() {
+        return maxLag;
+    }
+
+    /**
+     * Runs the work with every transaction it starts on the primary.
+     */
+    public <T> T onPrimary(Supplier<T> work) {
+        Boolean previous = pinned.get();
+        pinned.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            pinned.set(previous);
+        }
+    }
+
+    /**
+     * Whether a read right now may come from a replica that has not caught up with the latest change to
+     * any of the given entity types on this instance.
+     */
+    public boolean mayBeStale(Class<?>... entityTypes) {
+        return enabled && !Boolean.TRUE.equals(pinned.get()) && changeVersions.changedWithin(maxLag, entityTypes);
+    }
+
+    void pin(boolean pin) {
+        if (pin) {
+            pinned.set(Boolean.TRUE);
+        } else {
+            pinned.remove();
+        }
+    }
+
+    boolean beginTransaction(TransactionDefinition definition) {
+        boolean replica = enabled && definition.isReadOnly() && !Boolean.TRUE.equals(pinned.get())
+                && !(definition instanceof TransactionAttribute attribute && attribute.getLabels().contains(PRIMARY));
+        if (replica) {
+            replicaRead.set(Boolean.TRUE);
+        }
+        return replica;
+    }
+
+    void endTransaction() {
+        replicaRead.remove();
+    }
+
+    boolean onReplica() {
+        return Boolean.TRUE.equals(replicaRead.get());
+    }
+}
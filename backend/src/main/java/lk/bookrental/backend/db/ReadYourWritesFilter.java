@@ -0,0 +1,70 @@
+package lk.bookrental.backend.db;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Read-your-writes for replica routing: a write hands the client a cookie that pins its requests to the
+ * primary until the replica can be trusted to have caught up.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String COOKIE = "bookrental-primary-until";
+    private static final Set<String> WRITES = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+    private final ReadRouting readRouting;
+
+    public ReadYourWritesFilter(ReadRouting readRouting) {
+        this.readRouting = readRouting;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long now = System.currentTimeMillis();
+        boolean pinned = pinnedUntil(request) > now;
+        if (WRITES.contains(request.getMethod())) {
+            Duration maxLag = readRouting.maxLag();
+            // set before the chain runs, since the response may be committed by the time it returns;
+            // pinning after a failed write only costs a few primary reads
+            response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(COOKIE, Long.toString(now + maxLag.toMillis()))
+                    .path("/")
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .maxAge(Duration.ofSeconds(Math.max(1, maxLag.toSeconds() + 1)))
+                    .build().toString());
+            pinned = true;
+        }
+        readRouting.pin(pinned);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            readRouting.pin(false);
+        }
+    }
+
+    private static long pinnedUntil(HttpServletRequest request) {
+        if (request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if (COOKIE.equals(cookie.getName())) {
+                    try {
+                        return Long.parseLong(cookie.getValue());
+                    } catch (NumberFormatException e) {
+                        return 0;
+                    }
+                }
+            }
+        }
+        return 0;
+    }
+}
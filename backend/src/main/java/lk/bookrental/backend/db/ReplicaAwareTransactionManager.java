@@ -0,0 +1,50 @@
+package lk.bookrental.backend.db;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Routes each JPA transaction before it takes its connection. The decision is made here rather than in the
+ * JPA dialect because only this layer still sees the transaction's labels.
+ * <p>
+ * Replica transactions read the second-level and query caches but never fill them: a lagging replica would
+ * otherwise put rows there that are older than what this instance already committed.
+ */
+public class ReplicaAwareTransactionManager extends JpaTransactionManager {
+
+    private final transient ReadRouting readRouting;
+
+    public ReplicaAwareTransactionManager(ReadRouting readRouting) {
+        this.readRouting = readRouting;
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        boolean replica = readRouting.beginTransaction(definition);
+        try {
+            super.doBegin(transaction, definition);
+        } catch (RuntimeException | Error e) {
+            readRouting.endTransaction();
+            throw e;
+        }
+        if (replica) {
+            EntityManagerFactory entityManagerFactory = obtainEntityManagerFactory();
+            EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager.getResource(entityManagerFactory);
+            holder.getEntityManager().unwrap(Session.class).setCacheMode(CacheMode.GET);
+        }
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        try {
+            super.doCleanupAfterCompletion(transaction);
+        } finally {
+            readRouting.endTransaction();
+        }
+    }
+}
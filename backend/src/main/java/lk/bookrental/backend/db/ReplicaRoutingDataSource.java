@@ -0,0 +1,26 @@
+package lk.bookrental.backend.db;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+// hands out replica connections while ReadRouting has a replica read open on this thread, primary ones otherwise
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica";
+
+    private final ReadRouting readRouting;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReadRouting readRouting) {
+        this.readRouting = readRouting;
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return readRouting.onReplica() ? REPLICA : PRIMARY;
+    }
+}
@@ -0,0 +1,17 @@
+package lk.bookrental.backend.dto.request;
+
+import lk.bookrental.backend.model.AvailabilityStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookBatchItem {
+    private Long id; // optional; when set the item updates that book, otherwise it creates a new one
+    private String title;
+    private String author;
+    private String genre;
+    private AvailabilityStatus availabilityStatus; // optional; defaults to AVAILABLE on create, kept on update
+}
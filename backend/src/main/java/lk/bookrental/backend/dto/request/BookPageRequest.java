@@ -0,0 +1,17 @@
+package lk.bookrental.backend.dto.request;
+
+import lk.bookrental.backend.model.AvailabilityStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookPageRequest {
+    private String genre;
+    private String author;
+    private AvailabilityStatus availabilityStatus;
+    private Long cursor; // id of the last book on the previous page; null for the first page
+    private Integer limit; // optional; defaults to 50, capped at 500
+}
@@ -0,0 +1,23 @@
+package lk.bookrental.backend.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RentalBatchItem {
+    private Long id; // optional; when set the item updates that rental (partial), otherwise it creates a new one
+    private String username;
+    private LocalDate rentalDate;
+    private LocalDate returnDate;
+    private Long bookId; // required on create, ignored on update
+    private LocalDate dueDate; // optional; defaults to rentalDate plus the loan period on create
+
+    public RentalBatchItem(Long id, String username, LocalDate rentalDate, LocalDate returnDate, Long bookId) {
+        this(id, username, rentalDate, returnDate, bookId, null);
+    }
+}
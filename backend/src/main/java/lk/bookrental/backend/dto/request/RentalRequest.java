@@ -14,6 +14,11 @@ public class RentalRequest {
     private LocalDate rentalDate;
     private LocalDate returnDate; // optional on create
     private Long bookId;
+    private LocalDate dueDate; // optional; defaults to rentalDate plus the loan period
+
+    public RentalRequest(String username, LocalDate rentalDate, LocalDate returnDate, Long bookId) {
+        this(username, rentalDate, returnDate, bookId, null);
+    }
 }
 
 
@@ -0,0 +1,17 @@
+package lk.bookrental.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BatchItemResult<T> {
+    private int index; // position of the item in the request body
+    private BatchItemStatus status;
+    private T item; // null when the item failed
+    private String error; // null unless the item failed
+}
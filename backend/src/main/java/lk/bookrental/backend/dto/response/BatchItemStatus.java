@@ -0,0 +1,7 @@
+package lk.bookrental.backend.dto.response;
+
+public enum BatchItemStatus {
+    CREATED,
+    UPDATED,
+    FAILED
+}
@@ -0,0 +1,20 @@
+package lk.bookrental.backend.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lk.bookrental.backend.event.ChangeType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ChangeEventResponse {
+    private ChangeType type;
+    private Long id;
+    private BookResponse book; // set on "book" events, except deletes
+    private RentalResponse rental; // set on "rental" events
+}
@@ -0,0 +1,20 @@
+package lk.bookrental.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class DeltaResponse<T> {
+    private List<T> items; // rows created or changed since the requested version, oldest change first
+    private List<Long> deletedIds;
+    private long nextSince; // pass back as ?since= on the next call
+    private Long nextAfter; // pass back as ?after= while hasMore is true; null otherwise
+    private boolean hasMore;
+}
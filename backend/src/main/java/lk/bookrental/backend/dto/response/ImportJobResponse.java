@@ -0,0 +1,25 @@
+package lk.bookrental.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ImportJobResponse {
+    private String id;
+    private ImportStatus status;
+    private long rowsRead;
+    private long imported;
+    private long failed;
+    private List<String> errors; // first rejected rows, capped
+    private String message; // set when the whole import failed
+    private Instant startedAt;
+    private Instant finishedAt;
+}
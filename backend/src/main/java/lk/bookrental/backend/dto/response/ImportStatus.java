@@ -0,0 +1,8 @@
+package lk.bookrental.backend.dto.response;
+
+public enum ImportStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
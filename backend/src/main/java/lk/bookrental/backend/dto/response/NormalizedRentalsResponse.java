@@ -0,0 +1,38 @@
+package lk.bookrental.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A rental list with each distinct book sent once. Served for {@code ?shape=normalized}; the rentals keep their
+ * order and {@code books} follows the order in which the rentals first mention them.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class NormalizedRentalsResponse {
+    private List<RentalRowResponse> rentals;
+    private List<BookResponse> books;
+
+    public static NormalizedRentalsResponse of(List<RentalResponse> rentals) {
+        List<RentalRowResponse> rows = new ArrayList<>(rentals.size());
+        Map<Long, BookResponse> books = new LinkedHashMap<>();
+        for (RentalResponse rental : rentals) {
+            BookResponse book = rental.getBook();
+            rows.add(new RentalRowResponse(rental.getId(), rental.getUsername(), rental.getRentalDate(),
+                    rental.getReturnDate(), rental.getDueDate(), rental.getOverdueSince(), book != null ? book.getId() : null));
+            if (book != null) {
+                books.putIfAbsent(book.getId(), book);
+            }
+        }
+        return new NormalizedRentalsResponse(rows, new ArrayList<>(books.values()));
+    }
+}
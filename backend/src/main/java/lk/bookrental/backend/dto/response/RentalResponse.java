@@ -1,5 +1,6 @@
 package lk.bookrental.backend.dto.response;
 
+import lk.bookrental.backend.model.AvailabilityStatus;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -16,7 +17,17 @@ public class RentalResponse {
     private String username;
     private LocalDate rentalDate;
     private LocalDate returnDate;
+    private LocalDate dueDate;
+    private LocalDate overdueSince; // null until the overdue scan flags the rental
     private BookResponse book;
+
+    // flat constructor used by JPQL constructor expressions in RentalRepository
+    public RentalResponse(Long id, String username, LocalDate rentalDate, LocalDate returnDate,
+                          LocalDate dueDate, LocalDate overdueSince,
+                          Long bookId, String title, String author, String genre, AvailabilityStatus availabilityStatus) {
+        this(id, username, rentalDate, returnDate, dueDate, overdueSince,
+                new BookResponse(bookId, title, author, genre, availabilityStatus));
+    }
 }
 
 
@@ -0,0 +1,23 @@
+package lk.bookrental.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// a rental in the normalized shape: the book is referenced by id and listed once in NormalizedRentalsResponse.books
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class RentalRowResponse {
+    private Long id;
+    private String username;
+    private LocalDate rentalDate;
+    private LocalDate returnDate;
+    private LocalDate dueDate;
+    private LocalDate overdueSince;
+    private Long bookId;
+}
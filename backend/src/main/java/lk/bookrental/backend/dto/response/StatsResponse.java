@@ -0,0 +1,26 @@
+package lk.bookrental.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class StatsResponse {
+    private long totalBooks;
+    private long availableBooks;
+    private long unavailableBooks;
+    private long totalRentals;
+    private long activeRentals;
+    private long returnedRentals;
+    private Map<String, Long> booksByGenre; // largest genres first, capped
+    private Map<String, Long> rentalsByGenre; // most rented genres first, capped
+    private Map<String, Long> rentalsByUser; // most active users first, capped
+    private Instant generatedAt;
+}
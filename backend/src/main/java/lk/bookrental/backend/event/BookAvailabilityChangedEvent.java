@@ -0,0 +1,5 @@
+package lk.bookrental.backend.event;
+
+// published by the rental service whenever a checkout, return or rental delete flips a book's availability
+public record BookAvailabilityChangedEvent(Long bookId) {
+}
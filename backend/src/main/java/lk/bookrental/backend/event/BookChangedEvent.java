@@ -0,0 +1,8 @@
+package lk.bookrental.backend.event;
+
+import lk.bookrental.backend.dto.response.BookResponse;
+
+// published when a book is created, edited or deleted (book is null for deletes); availability flips from
+// rentals are reported separately through BookAvailabilityChangedEvent
+public record BookChangedEvent(ChangeType type, Long bookId, BookResponse book) {
+}
@@ -0,0 +1,7 @@
+package lk.bookrental.backend.event;
+
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
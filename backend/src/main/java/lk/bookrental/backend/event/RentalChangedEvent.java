@@ -0,0 +1,8 @@
+package lk.bookrental.backend.event;
+
+import lk.bookrental.backend.dto.response.RentalResponse;
+
+// published when a rental is opened, edited/returned or deleted; rental is the last known state, including
+// for deletes, so listeners can see the book's availability after the change
+public record RentalChangedEvent(ChangeType type, Long rentalId, RentalResponse rental) {
+}
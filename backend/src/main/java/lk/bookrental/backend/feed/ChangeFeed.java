@@ -0,0 +1,175 @@
+package lk.bookrental.backend.feed;
+
+import jakarta.annotation.PreDestroy;
+import lk.bookrental.backend.dto.response.ChangeEventResponse;
+import lk.bookrental.backend.event.BookChangedEvent;
+import lk.bookrental.backend.event.RentalChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fans committed book and rental changes out to server-sent-event subscribers.
+ * <p>
+ * Publishing never touches a socket: each subscriber has a bounded queue drained by its own virtual thread,
+ * so a slow client only ever blocks itself. When a subscriber's queue is full it is evicted instead of
+ * buffering without limit; it gets a final "resync" event and should reload and reconnect.
+ */
+@Component
+public class ChangeFeed {
+
+    static final String RESYNC = "resync";
+    // queued only to wake a drain loop that is waiting on an empty queue; never sent
+    private static final FeedEvent WAKE_UP = new FeedEvent(0, "wake-up", null);
+
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+    private final int bufferSize;
+    private final Duration heartbeat;
+
+    public ChangeFeed(@Value("${bookrental.feed.buffer-size:256}") int bufferSize,
+                      @Value("${bookrental.feed.heartbeat:15s}") Duration heartbeat) {
+        this.bufferSize = bufferSize;
+        this.heartbeat = heartbeat;
+    }
+
+    public SseEmitter subscribe() {
+        // no explicit timeout: spring.mvc.async.request-timeout applies and EventSource reconnects on its own
+        SseEmitter emitter = new SseEmitter();
+        Subscription subscription = subscribe(new SseSink(emitter));
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(e -> subscription.cancel());
+        return emitter;
+    }
+
+    Subscription subscribe(FeedSink sink) {
+        Subscription subscription = new Subscription(sink, new ArrayBlockingQueue<>(bufferSize));
+        subscriptions.add(subscription);
+        Thread.ofVirtual().name("change-feed").start(() -> drain(subscription));
+        return subscription;
+    }
+
+    public int subscriberCount() {
+        return subscriptions.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        publish("book", ChangeEventResponse.builder()
+                .type(event.type())
+                .id(event.bookId())
+                .book(event.book())
+                .build());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRentalChanged(RentalChangedEvent event) {
+        publish("rental", ChangeEventResponse.builder()
+                .type(event.type())
+                .id(event.rentalId())
+                .rental(event.rental())
+                .build());
+    }
+
+    void publish(String name, Object data) {
+        FeedEvent event = new FeedEvent(sequence.incrementAndGet(), name, data);
+        for (Subscription subscription : subscriptions) {
+            if (!subscription.queue.offer(event)) {
+                evict(subscription);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscriptions.forEach(Subscription::cancel);
+    }
+
+    private void evict(Subscription subscription) {
+        if (subscriptions.remove(subscription)) {
+            subscription.evicted = true;
+            subscription.queue.clear();
+            subscription.queue.offer(WAKE_UP);
+        }
+    }
+
+    private void drain(Subscription subscription) {
+        FeedSink sink = subscription.sink;
+        try {
+            sink.heartbeat(); // commits the response headers so the client sees the stream open
+            while (!subscription.cancelled) {
+                FeedEvent event = subscription.queue.poll(heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+                if (subscription.evicted) {
+                    sink.send(new FeedEvent(0, RESYNC, "buffer overflow"));
+                    break;
+                }
+                if (subscription.cancelled) {
+                    break;
+                }
+                if (event == null) {
+                    sink.heartbeat();
+                } else {
+                    sink.send(event);
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // client went away; nothing left to deliver to
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            subscriptions.remove(subscription);
+            sink.close();
+        }
+    }
+
+    static final class Subscription {
+        private final FeedSink sink;
+        private final BlockingQueue<FeedEvent> queue;
+        private volatile boolean cancelled;
+        private volatile boolean evicted;
+
+        private Subscription(FeedSink sink, BlockingQueue<FeedEvent> queue) {
+            this.sink = sink;
+            this.queue = queue;
+        }
+
+        void cancel() {
+            cancelled = true;
+            queue.offer(WAKE_UP);
+        }
+    }
+
+    private record SseSink(SseEmitter emitter) implements FeedSink {
+
+        @Override
+        public void send(FeedEvent event) throws IOException {
+            SseEmitter.SseEventBuilder builder = SseEmitter.event().name(event.name());
+            if (event.id() > 0) {
+                builder.id(Long.toString(event.id()));
+            }
+            emitter.send(builder.data(event.data(), MediaType.APPLICATION_JSON));
+        }
+
+        @Override
+        public void heartbeat() throws IOException {
+            emitter.send(SseEmitter.event().comment("keep-alive"));
+        }
+
+        @Override
+        public void close() {
+            emitter.complete();
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package lk.bookrental.backend.feed;
+
+// one server-sent event: id and name become the SSE "id:" and "event:" fields, data is written as JSON
+record FeedEvent(long id, String name, Object data) {
+}
@@ -0,0 +1,13 @@
+package lk.bookrental.backend.feed;
+
+import java.io.IOException;
+
+// where a subscriber's events are written; SSE in production, a plain recorder in tests
+interface FeedSink {
+
+    void send(FeedEvent event) throws IOException;
+
+    void heartbeat() throws IOException;
+
+    void close();
+}
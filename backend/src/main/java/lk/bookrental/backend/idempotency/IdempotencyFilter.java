@@ -0,0 +1,232 @@
+package lk.bookrental.backend.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Makes book and rental writes safe to retry. A write sent with an {@code Idempotency-Key} header runs once;
+ * a retry with the same key, method and URI gets the first response back, marked {@code Idempotent-Replayed},
+ * without the write running again, and a retry that arrives while the first attempt is still running waits
+ * for it. Reusing a key for a different body is refused with 422.
+ * <p>
+ * The body is fingerprinted as the controller reads it, never buffered, so keyed imports and batches still
+ * stream; a replay reads the retried body through the digest and discards it.
+ * <p>
+ * Server errors, 409 and 429 are not kept, since retrying is the right answer to those.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED = "Idempotent-Replayed";
+    private static final Set<String> WRITES = Set.of("POST", "PUT", "PATCH", "DELETE");
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore store;
+    private final ObjectMapper objectMapper;
+    private final Counter replays;
+
+    public IdempotencyFilter(IdempotencyStore store, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.store = store;
+        this.objectMapper = objectMapper;
+        this.replays = Counter.builder("bookrental.idempotency.replays")
+                .description("Writes answered with the stored response of an earlier request with the same Idempotency-Key")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return request.getHeader(HEADER) == null || !WRITES.contains(request.getMethod())
+                || !(uri.startsWith("/api/books") || uri.startsWith("/api/rentals"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(HEADER);
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            error(response, HttpStatus.BAD_REQUEST, HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        DigestingRequest digestingRequest = new DigestingRequest(request);
+        String query = request.getQueryString();
+        String key = sha256((request.getMethod() + ' ' + request.getRequestURI() + (query != null ? '?' + query : "")
+                + '\n' + idempotencyKey).getBytes(StandardCharsets.UTF_8));
+
+        IdempotentResponse previous;
+        try {
+            previous = store.acquire(key);
+        } catch (TimeoutException e) {
+            error(response, HttpStatus.CONFLICT, "A request with this " + HEADER + " is still being processed, please retry");
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error(response, HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while waiting for an earlier request with this " + HEADER);
+            return;
+        }
+        if (previous != null) {
+            replay(previous, digestingRequest.fingerprint(), response);
+            return;
+        }
+
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        IdempotentResponse outcome = null;
+        try {
+            filterChain.doFilter(digestingRequest, responseWrapper);
+            if (replayable(responseWrapper.getStatus())) {
+                outcome = new IdempotentResponse(digestingRequest.fingerprint(), responseWrapper.getStatus(),
+                        responseWrapper.getContentType(), responseWrapper.getContentAsByteArray());
+            }
+        } finally {
+            // stored before the body goes out, so a client that timed out and retries finds it
+            store.release(key, outcome);
+        }
+        responseWrapper.copyBodyToResponse();
+    }
+
+    private void replay(IdempotentResponse previous, String fingerprint, HttpServletResponse response) throws IOException {
+        if (!previous.fingerprint().equals(fingerprint)) {
+            error(response, HttpStatus.UNPROCESSABLE_ENTITY, HEADER + " was already used for a different request");
+            return;
+        }
+        replays.increment();
+        response.setStatus(previous.status());
+        if (previous.contentType() != null) {
+            response.setContentType(previous.contentType());
+        }
+        response.setHeader(REPLAYED, "true");
+        response.setContentLength(previous.body().length);
+        response.getOutputStream().write(previous.body());
+    }
+
+    private static boolean replayable(int status) {
+        return status < 500 && status != HttpStatus.CONFLICT.value() && status != HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+
+    private void error(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), Map.of("error", message));
+    }
+
+    private static String sha256(byte[] bytes) {
+        return HexFormat.of().formatHex(sha256().digest(bytes));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // every byte the controller reads goes through the digest; whatever it leaves unread is digested at the end
+    private static final class DigestingRequest extends HttpServletRequestWrapper {
+
+        private final MessageDigest digest = sha256();
+        private final DigestingInputStream in;
+        private BufferedReader reader;
+        private String fingerprint;
+
+        DigestingRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.in = new DigestingInputStream(request.getInputStream(), digest);
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            return in;
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            if (reader == null) {
+                String encoding = getCharacterEncoding();
+                Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+                reader = new BufferedReader(new InputStreamReader(in, charset));
+            }
+            return reader;
+        }
+
+        String fingerprint() throws IOException {
+            if (fingerprint == null) {
+                in.transferTo(OutputStream.nullOutputStream());
+                fingerprint = HexFormat.of().formatHex(digest.digest());
+            }
+            return fingerprint;
+        }
+    }
+
+    private static final class DigestingInputStream extends ServletInputStream {
+
+        private final ServletInputStream delegate;
+        private final MessageDigest digest;
+
+        DigestingInputStream(ServletInputStream delegate, MessageDigest digest) {
+            this.delegate = delegate;
+            this.digest = digest;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = delegate.read();
+            if (b >= 0) {
+                digest.update((byte) b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = delegate.read(b, off, len);
+            if (n > 0) {
+                digest.update(b, off, n);
+            }
+            return n;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return delegate.isFinished();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        // non-blocking reads still come through read(), so they are digested too
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            delegate.setReadListener(readListener);
+        }
+    }
+}
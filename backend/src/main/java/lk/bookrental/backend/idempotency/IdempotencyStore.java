@@ -0,0 +1,148 @@
+package lk.bookrental.backend.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lk.bookrental.backend.repository.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Responses to Idempotency-Key requests, held for {@code ttl}.
+ * <p>
+ * Responses live in a Caffeine cache bounded by their total size. With {@code persistent=true} they are also
+ * written to {@code idempotency_records}, so a retry still finds them after a restart or on another instance.
+ * A key is owned by one request at a time: duplicates arriving while it runs wait for its response instead
+ * of running the write again. That coalescing is per instance; across instances the table only catches
+ * retries that arrive after the first request finished.
+ */
+@Component
+public class IdempotencyStore {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    private final IdempotencyRecordRepository repository;
+    private final Cache<String, IdempotentResponse> responses;
+    private final ConcurrentMap<String, CompletableFuture<IdempotentResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Duration ttl;
+    private final Duration maxWait;
+    private final boolean persistent;
+
+    public IdempotencyStore(IdempotencyRecordRepository repository,
+                            @Value("${bookrental.idempotency.ttl:24h}") Duration ttl,
+                            @Value("${bookrental.idempotency.max-memory:64MB}") DataSize maxMemory,
+                            @Value("${bookrental.idempotency.max-wait:30s}") Duration maxWait,
+                            @Value("${bookrental.idempotency.persistent:false}") boolean persistent) {
+        this.repository = repository;
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maxMemory.toBytes())
+                .weigher((String key, IdempotentResponse response) -> key.length() + response.body().length + 128)
+                .expireAfterWrite(ttl)
+                .build();
+        this.ttl = ttl;
+        this.maxWait = maxWait;
+        this.persistent = persistent;
+    }
+
+    /**
+     * Returns the stored response for the key, waiting for it if another request holds the key. Returns null
+     * once the caller holds the key itself; it must then run the request and call {@link #release}.
+     *
+     * @throws TimeoutException if the request holding the key did not finish within {@code max-wait}
+     */
+    public IdempotentResponse acquire(String key) throws InterruptedException, TimeoutException {
+        while (true) {
+            IdempotentResponse stored = find(key);
+            if (stored != null) {
+                return stored;
+            }
+            CompletableFuture<IdempotentResponse> claim = new CompletableFuture<>();
+            CompletableFuture<IdempotentResponse> running = inFlight.putIfAbsent(key, claim);
+            if (running == null) {
+                // the previous holder may have finished between the lookup and the claim
+                stored = responses.getIfPresent(key);
+                if (stored == null) {
+                    return null;
+                }
+                inFlight.remove(key, claim);
+                claim.complete(stored);
+                return stored;
+            }
+            try {
+                stored = running.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                stored = null; // never completed exceptionally
+            }
+            if (stored != null) {
+                return stored;
+            }
+            // the holder's outcome is not replayable, e.g. a 503; take the key and run the request ourselves
+        }
+    }
+
+    /**
+     * Stores the response, if there is one worth replaying, and hands it to the requests waiting on the key.
+     */
+    public void release(String key, IdempotentResponse response) {
+        try {
+            if (response != null) {
+                responses.put(key, response);
+                if (persistent) {
+                    persist(key, response);
+                }
+            }
+        } finally {
+            CompletableFuture<IdempotentResponse> claim = inFlight.remove(key);
+            if (claim != null) {
+                claim.complete(response);
+            }
+        }
+    }
+
+    @Scheduled(initialDelayString = "${bookrental.idempotency.purge-interval:1h}",
+            fixedDelayString = "${bookrental.idempotency.purge-interval:1h}")
+    public void scheduledPurge() {
+        if (persistent) {
+            int purged = repository.deleteCreatedBefore(Instant.now().minus(ttl));
+            log.debug("Purged {} expired idempotency records", purged);
+        }
+    }
+
+    private IdempotentResponse find(String key) {
+        IdempotentResponse stored = responses.getIfPresent(key);
+        if (stored != null || !persistent) {
+            return stored;
+        }
+        Instant cutoff = Instant.now().minus(ttl);
+        stored = repository.findById(key)
+                .filter(record -> record.getCreatedAt().isAfter(cutoff))
+                .map(IdempotentResponse::of)
+                .orElse(null);
+        if (stored != null) {
+            responses.put(key, stored);
+        }
+        return stored;
+    }
+
+    // the write itself has committed by now; losing its record only weakens dedupe across instances
+    private void persist(String key, IdempotentResponse response) {
+        try {
+            repository.save(response.toRecord(key, Instant.now()));
+        } catch (DataAccessException e) {
+            log.warn("Could not persist idempotency record {}", key, e);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package lk.bookrental.backend.idempotency;
+
+import lk.bookrental.backend.model.IdempotencyRecord;
+
+import java.time.Instant;
+
+/**
+ * A response kept for replay. The fingerprint is the hash of the request body it answered, so a key reused
+ * for a different request can be told apart from a retry.
+ */
+public record IdempotentResponse(String fingerprint, int status, String contentType, byte[] body) {
+
+    static IdempotentResponse of(IdempotencyRecord record) {
+        return new IdempotentResponse(record.getFingerprint(), record.getStatus(), record.getContentType(), record.getBody());
+    }
+
+    IdempotencyRecord toRecord(String id, Instant createdAt) {
+        return IdempotencyRecord.builder()
+                .id(id)
+                .fingerprint(fingerprint)
+                .status(status)
+                .contentType(contentType)
+                .body(body)
+                .createdAt(createdAt)
+                .build();
+    }
+}
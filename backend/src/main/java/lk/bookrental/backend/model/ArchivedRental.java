@@ -0,0 +1,53 @@
+package lk.bookrental.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+// a returned rental moved out of the live table by RentalArchiver; read-only from then on
+@Entity
+@Table(name = "rentals_archive", indexes = {
+        @Index(name = "idx_rentals_archive_username_date", columnList = "username, rental_date, id"),
+        @Index(name = "idx_rentals_archive_change_version_id", columnList = "change_version, id")
+})
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class ArchivedRental {
+    // the id the rental had in the live table, so links to it keep working with history=true
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private String username;
+
+    @Column(nullable = false)
+    private LocalDate rentalDate;
+
+    @Column(nullable = false)
+    private LocalDate returnDate;
+
+    private LocalDate dueDate;
+    private LocalDate overdueSince;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "book_id", nullable = false, insertable = false, updatable = false)
+    private Book book;
+
+    // written directly, so rows can be copied over with one insert ... select
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+
+    // the version of the move, not of the rental's last edit, so other instances' polls notice it
+    @Column(name = "change_version", nullable = false)
+    private long changeVersion;
+
+    @Column(nullable = false)
+    private Instant archivedAt;
+}
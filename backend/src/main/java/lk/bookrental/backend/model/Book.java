@@ -1,20 +1,33 @@
 package lk.bookrental.backend.model;
 
 import jakarta.persistence.*;
+import lk.bookrental.backend.config.SecondLevelCacheConfig;
+import lk.bookrental.backend.sync.ChangeVersionListener;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
-@Table(name = "books")
+@Table(name = "books", indexes = {
+        @Index(name = "idx_books_genre_id", columnList = "genre, id"),
+        @Index(name = "idx_books_author_id", columnList = "author, id"),
+        @Index(name = "idx_books_status_id", columnList = "availability_status, id"),
+        @Index(name = "idx_books_change_version_id", columnList = "change_version, id")
+})
+@EntityListeners(ChangeVersionListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.BOOK_REGION)
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
-public class Book {
+public class Book implements Versioned {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "books_seq")
+    @SequenceGenerator(name = "books_seq", sequenceName = "books_seq", allocationSize = 50) // pooled ids keep JDBC insert batching possible
     private Long id;
 
     @Column(nullable = false)
@@ -29,4 +42,12 @@ public class Book {
     @Enumerated(EnumType.STRING)
     @Column(name = "availability_status", nullable = false)
     private AvailabilityStatus availabilityStatus = AvailabilityStatus.AVAILABLE;
+
+    @Column(name = "change_version", nullable = false)
+    private long changeVersion;
+
+    // optimistic lock: every update is conditional on the version it read, so writes made from a cached copy
+    // cannot overwrite a newer row
+    @Version
+    private long version;
 }
@@ -0,0 +1,41 @@
+package lk.bookrental.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+// the stored response to an Idempotency-Key request; only written when bookrental.idempotency.persistent=true
+@Entity
+@Table(name = "idempotency_records", indexes = {
+        @Index(name = "idx_idempotency_records_created_at", columnList = "created_at")
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class IdempotencyRecord {
+    // SHA-256 of method, URI and key, so arbitrary client keys fit a fixed-width primary key
+    @Id
+    @Column(length = 64)
+    private String id;
+
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    private int status;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    // MEDIUMBLOB on MySQL, enough for a batch response
+    @Lob
+    @Column(nullable = false, length = 16_777_215)
+    private byte[] body;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
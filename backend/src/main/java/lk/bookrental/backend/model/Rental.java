@@ -1,6 +1,7 @@
 package lk.bookrental.backend.model;
 
 import jakarta.persistence.*;
+import lk.bookrental.backend.sync.ChangeVersionListener;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -9,14 +10,22 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "rentals")
+@Table(name = "rentals", indexes = {
+        @Index(name = "idx_rentals_change_version_id", columnList = "change_version, id"),
+        // open rentals sorted by due date: "return_date IS NULL AND due_date < ?" is one range of this index
+        @Index(name = "idx_rentals_open_due", columnList = "return_date, due_date, id"),
+        // one user's history, newest first; return_date rides along so counting active rentals never reads a row
+        @Index(name = "idx_rentals_username_date", columnList = "username, rental_date, id, return_date")
+})
+@EntityListeners(ChangeVersionListener.class)
 @AllArgsConstructor
 @NoArgsConstructor
 @Data
 @Builder
-public class Rental {
+public class Rental implements Versioned {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rentals_seq")
+    @SequenceGenerator(name = "rentals_seq", sequenceName = "rentals_seq", allocationSize = 50) // pooled ids keep JDBC insert batching possible
     private Long id;
 
     @Column(nullable = false)
@@ -26,7 +35,16 @@ public class Rental {
     private LocalDate rentalDate;
     private LocalDate returnDate;
 
-    @ManyToOne
+    // nullable only for rows created before due dates existed
+    private LocalDate dueDate;
+
+    // set by OverdueRentalScanner on the day it first found the rental overdue
+    private LocalDate overdueSince;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "book_id", nullable = false)
     private Book book;
+
+    @Column(name = "change_version", nullable = false)
+    private long changeVersion;
 }
@@ -0,0 +1,33 @@
+package lk.bookrental.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// records a delete so delta sync clients can drop rows that no longer exist
+@Entity
+@Table(name = "tombstones", indexes = {
+        @Index(name = "idx_tombstones_type_version", columnList = "entity_type, change_version")
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class Tombstone {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tombstones_seq")
+    @SequenceGenerator(name = "tombstones_seq", sequenceName = "tombstones_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false)
+    private TombstoneType entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Column(name = "change_version", nullable = false)
+    private long changeVersion;
+}
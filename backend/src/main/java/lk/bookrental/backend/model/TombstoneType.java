@@ -0,0 +1,6 @@
+package lk.bookrental.backend.model;
+
+public enum TombstoneType {
+    BOOK,
+    RENTAL
+}
@@ -0,0 +1,23 @@
+package lk.bookrental.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// one row per user who has checked out a book; checkouts lock it so the per-user limit is checked one at a time
+@Entity
+@Table(name = "user_checkout_locks")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class UserCheckoutLock {
+    @Id
+    private String username;
+
+    // bumped by every locking checkout, so the lock is always a real row update
+    @Column(nullable = false)
+    private long checkouts;
+}
@@ -0,0 +1,6 @@
+package lk.bookrental.backend.model;
+
+// entities whose rows carry the change version of the transaction that last wrote them
+public interface Versioned {
+    void setChangeVersion(long changeVersion);
+}
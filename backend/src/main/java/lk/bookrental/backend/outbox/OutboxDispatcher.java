@@ -0,0 +1,181 @@
+package lk.bookrental.backend.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lk.bookrental.backend.model.OutboxEvent;
+import lk.bookrental.backend.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Drains the outbox table into the {@link OutboxSink}s.
+ * <p>
+ * A single virtual thread per instance claims the oldest due rows in batches, hands each batch to every sink
+ * and then deletes it. Committed rental changes wake it straight away; otherwise it polls every
+ * {@code poll-interval}. A claim is a short transaction that locks the due rows with {@code skip locked} and
+ * pushes their next attempt out by {@code lease}, so dispatchers on other instances neither wait for nor
+ * re-deliver a batch in flight. If a sink fails, the batch stays in the table and is retried with exponential
+ * backoff; if the instance dies mid-batch, the rows fall due again once the lease runs out. Nothing is lost,
+ * but sinks can see a message more than once. Delivery order is by id, and is not guaranteed across retries.
+ */
+@Component
+public class OutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+    private static final Duration MAX_BACKOFF = Duration.ofMinutes(5);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxSink> sinks;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter delivered;
+    private final Counter failures;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Duration retryBackoff;
+    private final Duration lease;
+    private final boolean enabled;
+    private final Semaphore wakeUps = new Semaphore(0);
+    private final ReentrantLock dispatching = new ReentrantLock();
+    private volatile Thread worker;
+
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository, List<OutboxSink> sinks,
+                            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                            @Value("${bookrental.outbox.batch-size:200}") int batchSize,
+                            @Value("${bookrental.outbox.poll-interval:1s}") Duration pollInterval,
+                            @Value("${bookrental.outbox.retry-backoff:1s}") Duration retryBackoff,
+                            @Value("${bookrental.outbox.lease:1m}") Duration lease,
+                            @Value("${bookrental.outbox.dispatcher.enabled:true}") boolean enabled) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sinks = sinks;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.delivered = Counter.builder("bookrental.outbox.delivered")
+                .description("Outbox messages handed to every sink")
+                .register(meterRegistry);
+        this.failures = Counter.builder("bookrental.outbox.failures")
+                .description("Outbox batches that a sink rejected and that will be retried")
+                .register(meterRegistry);
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.retryBackoff = retryBackoff;
+        this.lease = lease;
+        this.enabled = enabled;
+    }
+
+    // after startup, so schema generation has created the table
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled && worker == null) {
+            worker = Thread.ofVirtual().name("outbox-dispatcher").start(this::run);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        Thread thread = worker;
+        worker = null;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    public void wakeUp() {
+        wakeUps.release();
+    }
+
+    /**
+     * Delivers one batch of due messages and returns how many were delivered.
+     */
+    public int dispatchOnce() {
+        return dispatch(Instant.now());
+    }
+
+    int dispatch(Instant now) {
+        dispatching.lock();
+        try {
+            List<OutboxEvent> batch = claim(now);
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            List<OutboxMessage> messages = batch.stream()
+                    .map(e -> new OutboxMessage(e.getId(), e.getAggregateType(), e.getAggregateId(), e.getEventType(),
+                            e.getPayload(), e.getCreatedAt()))
+                    .toList();
+            for (OutboxSink sink : sinks) {
+                try {
+                    sink.deliver(messages);
+                } catch (Exception e) {
+                    failures.increment();
+                    log.warn("Outbox sink {} failed on {} messages starting at id {}; will retry",
+                            sink.name(), messages.size(), messages.get(0).id(), e);
+                    reschedule(batch, now);
+                    return 0;
+                }
+            }
+            outboxEventRepository.deleteAllByIdInBatch(batch.stream().map(OutboxEvent::getId).toList());
+            delivered.increment(batch.size());
+            return batch.size();
+        } finally {
+            dispatching.unlock();
+        }
+    }
+
+    private List<OutboxEvent> claim(Instant now) {
+        return transactionTemplate.execute(status -> {
+            List<OutboxEvent> batch = outboxEventRepository.findByNextAttemptAtLessThanEqualOrderById(now, Limit.of(batchSize));
+            // flushed on commit; from then on no other dispatcher finds these rows due until the lease runs out
+            batch.forEach(event -> event.setNextAttemptAt(now.plus(lease)));
+            return batch;
+        });
+    }
+
+    private void reschedule(List<OutboxEvent> batch, Instant now) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (OutboxEvent event : batch) {
+                event.setAttempts(event.getAttempts() + 1);
+                event.setNextAttemptAt(now.plus(backoff(event.getAttempts())));
+            }
+            outboxEventRepository.saveAll(batch);
+        });
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = retryBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : delay;
+    }
+
+    private void run() {
+        while (worker == Thread.currentThread()) {
+            try {
+                // a full batch means more is probably waiting, so go again without sleeping
+                if (dispatchOnce() < batchSize) {
+                    wakeUps.tryAcquire(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+                    wakeUps.drainPermits();
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Outbox dispatch failed; retrying in {}", pollInterval, e);
+                try {
+                    Thread.sleep(pollInterval);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+}
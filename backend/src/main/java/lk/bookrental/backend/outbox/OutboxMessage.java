@@ -0,0 +1,14 @@
+package lk.bookrental.backend.outbox;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lk.bookrental.backend.event.ChangeType;
+
+import java.time.Instant;
+
+/**
+ * One outbox entry as handed to the sinks. {@code id} is stable across redeliveries, so sinks can use it
+ * to drop duplicates. {@code payload} is the JSON the entity serialized to when the change was made.
+ */
+public record OutboxMessage(long id, String aggregateType, long aggregateId, ChangeType eventType,
+                            @JsonRawValue String payload, Instant createdAt) {
+}
@@ -0,0 +1,49 @@
+package lk.bookrental.backend.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lk.bookrental.backend.event.RentalChangedEvent;
+import lk.bookrental.backend.model.OutboxEvent;
+import lk.bookrental.backend.repository.OutboxEventRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+
+// writes the outbox row inside the rental's own transaction, so the change and its event commit or roll back together
+@Component
+public class OutboxRecorder {
+
+    static final String RENTAL = "rental";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final OutboxDispatcher dispatcher;
+
+    public OutboxRecorder(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper,
+                          OutboxDispatcher dispatcher) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+        this.dispatcher = dispatcher;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onRentalChanged(RentalChangedEvent event) throws JsonProcessingException {
+        Instant now = Instant.now();
+        outboxEventRepository.save(OutboxEvent.builder()
+                .aggregateType(RENTAL)
+                .aggregateId(event.rentalId())
+                .eventType(event.type())
+                .payload(objectMapper.writeValueAsString(event.rental()))
+                .createdAt(now)
+                .nextAttemptAt(now)
+                .build());
+    }
+
+    // only wakes the dispatcher; delivery itself never runs on the committing thread
+    @TransactionalEventListener
+    public void afterRentalCommitted(RentalChangedEvent event) {
+        dispatcher.wakeUp();
+    }
+}
@@ -0,0 +1,16 @@
+package lk.bookrental.backend.outbox;
+
+import java.util.List;
+
+/**
+ * A destination for outbox messages. Every {@code OutboxSink} bean receives every message.
+ * <p>
+ * Delivery is at least once. If any sink throws, the whole batch is retried later for every sink, so sinks
+ * must tolerate seeing a message again. Messages arrive in id order within a batch.
+ */
+public interface OutboxSink {
+
+    String name();
+
+    void deliver(List<OutboxMessage> batch) throws Exception;
+}
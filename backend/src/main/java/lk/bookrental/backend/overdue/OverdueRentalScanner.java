@@ -0,0 +1,105 @@
+package lk.bookrental.backend.overdue;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lk.bookrental.backend.dto.response.RentalResponse;
+import lk.bookrental.backend.event.ChangeType;
+import lk.bookrental.backend.event.RentalChangedEvent;
+import lk.bookrental.backend.model.Rental;
+import lk.bookrental.backend.repository.RentalDue;
+import lk.bookrental.backend.repository.RentalRepository;
+import lk.bookrental.backend.sync.ChangeVersions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Flags open rentals whose due date has passed.
+ * <p>
+ * The scan walks {@code idx_rentals_open_due} in keyset pages ordered by (due date, id). Each page is read
+ * with a plain consistent read, so no rows are locked, and is then flagged by one conditional update in its
+ * own short transaction. Only that page's rows are locked, and only briefly. The update re-checks that the
+ * rental is still open and unflagged, so a rental returned mid-scan, or a second instance running the same
+ * scan, is harmless. Flagged rentals get a new change version and go out on the change feed like any
+ * other update.
+ */
+@Component
+public class OverdueRentalScanner {
+
+    private static final Logger log = LoggerFactory.getLogger(OverdueRentalScanner.class);
+
+    private final RentalRepository rentalRepository;
+    private final ChangeVersions changeVersions;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter flagged;
+    private final int pageSize;
+
+    public OverdueRentalScanner(RentalRepository rentalRepository, ChangeVersions changeVersions,
+                                ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${bookrental.overdue.page-size:500}") int pageSize) {
+        this.rentalRepository = rentalRepository;
+        this.changeVersions = changeVersions;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.flagged = Counter.builder("bookrental.rentals.overdue.flagged")
+                .description("Rentals flagged as overdue by the scan")
+                .register(meterRegistry);
+        this.pageSize = pageSize;
+    }
+
+    @Scheduled(initialDelayString = "${bookrental.overdue.initial-delay:1m}",
+            fixedDelayString = "${bookrental.overdue.scan-interval:15m}")
+    public void scheduledScan() {
+        int count = scan(LocalDate.now());
+        if (count > 0) {
+            log.info("Flagged {} rentals as overdue", count);
+        }
+    }
+
+    /**
+     * Flags every open, unflagged rental due before {@code today} and returns how many were flagged.
+     */
+    public int scan(LocalDate today) {
+        int total = 0;
+        LocalDate afterDue = null;
+        long afterId = 0;
+        while (true) {
+            List<RentalDue> page = rentalRepository.findNewlyOverdue(today, afterDue, afterId, Limit.of(pageSize));
+            if (page.isEmpty()) {
+                return total;
+            }
+            List<Long> ids = page.stream().map(RentalDue::getId).toList();
+            total += transactionTemplate.execute(status -> flag(ids, today));
+            RentalDue last = page.get(page.size() - 1);
+            afterDue = last.getDueDate();
+            afterId = last.getId();
+            if (page.size() < pageSize) {
+                return total;
+            }
+        }
+    }
+
+    private int flag(List<Long> ids, LocalDate today) {
+        int updated = rentalRepository.markOverdue(ids, today, changeVersions.current(Rental.class));
+        if (updated > 0) {
+            for (RentalResponse rental : rentalRepository.findResponsesByIdIn(ids)) {
+                if (rental.getReturnDate() == null && today.equals(rental.getOverdueSince())) {
+                    eventPublisher.publishEvent(new RentalChangedEvent(ChangeType.UPDATED, rental.getId(), rental));
+                }
+            }
+            flagged.increment(updated);
+        }
+        return updated;
+    }
+}
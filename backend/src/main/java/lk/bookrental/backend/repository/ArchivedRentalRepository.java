@@ -0,0 +1,93 @@
+package lk.bookrental.backend.repository;
+
+import jakarta.persistence.QueryHint;
+import lk.bookrental.backend.dto.response.RentalResponse;
+import lk.bookrental.backend.model.ArchivedRental;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+// same read projections as RentalRepository, over the archive; only queried when history is asked for
+@Repository
+public interface ArchivedRentalRepository extends JpaRepository<ArchivedRental, Long> {
+
+    @Query("""
+            select new lk.bookrental.backend.dto.response.RentalResponse(
+                r.id, r.username, r.rentalDate, r.returnDate, r.dueDate, r.overdueSince,
+                b.id, b.title, b.author, b.genre, b.availabilityStatus)
+            from ArchivedRental r join r.book b
+            order by r.id
+            """)
+    List<RentalResponse> findAllResponses();
+
+    @Query("""
+            select new lk.bookrental.backend.dto.response.RentalResponse(
+                r.id, r.username, r.rentalDate, r.returnDate, r.dueDate, r.overdueSince,
+                b.id, b.title, b.author, b.genre, b.availabilityStatus)
+            from ArchivedRental r join r.book b
+            where r.id = :id
+            """)
+    Optional<RentalResponse> findResponseById(@Param("id") Long id);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select new lk.bookrental.backend.dto.response.RentalResponse(
+                r.id, r.username, r.rentalDate, r.returnDate, r.dueDate, r.overdueSince,
+                b.id, b.title, b.author, b.genre, b.availabilityStatus)
+            from ArchivedRental r join r.book b
+            order by r.id
+            """)
+    Stream<RentalResponse> streamAllResponses();
+
+    // keyset page over idx_rentals_archive_username_date, same order as RentalRepository.findUserHistory
+    @Query("""
+            select new lk.bookrental.backend.dto.response.RentalResponse(
+                r.id, r.username, r.rentalDate, r.returnDate, r.dueDate, r.overdueSince,
+                b.id, b.title, b.author, b.genre, b.availabilityStatus)
+            from ArchivedRental r join r.book b
+            where r.username = :username
+              and (:beforeDate is null or r.rentalDate < :beforeDate or (r.rentalDate = :beforeDate and r.id < :beforeId))
+            order by r.rentalDate desc, r.id desc
+            """)
+    List<RentalResponse> findUserHistory(@Param("username") String username,
+                                         @Param("beforeDate") LocalDate beforeDate,
+                                         @Param("beforeId") long beforeId,
+                                         Limit limit);
+
+    // rental change sync: rows archived after (since, afterId), so other instances see the live table shrink
+    @Query("""
+            select r.id as id, r.changeVersion as changeVersion from ArchivedRental r
+            where r.changeVersion > :since or (r.changeVersion = :since and r.id > :afterId)
+            order by r.changeVersion, r.id
+            """)
+    List<ChangedId> findChangedIds(@Param("since") long since, @Param("afterId") long afterId, Limit limit);
+
+    // copies the rentals that are still returned before the cutoff, stamped with the move's change version;
+    // RentalRepository.deleteArchived removes them
+    @Modifying
+    @Query("""
+            insert into ArchivedRental (id, username, rentalDate, returnDate, dueDate, overdueSince, bookId, changeVersion, archivedAt)
+            select r.id, r.username, r.rentalDate, r.returnDate, r.dueDate, r.overdueSince, r.book.id, :changeVersion, :archivedAt
+            from Rental r
+            where r.id in :ids and r.returnDate < :cutoff
+            """)
+    int copyFromLive(@Param("ids") Collection<Long> ids,
+                     @Param("cutoff") LocalDate cutoff,
+                     @Param("changeVersion") long changeVersion,
+                     @Param("archivedAt") Instant archivedAt);
+}
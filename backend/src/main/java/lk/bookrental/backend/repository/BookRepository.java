@@ -1,9 +1,73 @@
 package lk.bookrental.backend.repository;
 
+import jakarta.persistence.QueryHint;
+import lk.bookrental.backend.config.SecondLevelCacheConfig;
+import lk.bookrental.backend.model.AvailabilityStatus;
 import lk.bookrental.backend.model.Book;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long> {
+
+    // keyset page: seeks past the cursor on the primary key (or the (filter, id) indexes) instead of using OFFSET.
+    // Like the counts below it goes through the query cache, which any write to books invalidates: on this
+    // instance through Hibernate's table timestamps, on the others through BookCacheSync
+    @Query("""
+            select b from Book b
+            where b.id > :afterId
+              and (:genre is null or b.genre = :genre)
+              and (:author is null or b.author = :author)
+              and (:status is null or b.availabilityStatus = :status)
+            order by b.id
+            """)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = SecondLevelCacheConfig.CATALOG_QUERY_REGION)
+    })
+    List<Book> findPage(@Param("afterId") long afterId,
+                        @Param("genre") String genre,
+                        @Param("author") String author,
+                        @Param("status") AvailabilityStatus status,
+                        Limit limit);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = SecondLevelCacheConfig.CATALOG_QUERY_REGION)
+    })
+    long countByAvailabilityStatus(AvailabilityStatus availabilityStatus);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = SecondLevelCacheConfig.CATALOG_QUERY_REGION)
+    })
+    @Query("select b.genre as key, count(b) as count from Book b group by b.genre order by count(b) desc")
+    List<KeyCount> countByGenre(Limit limit);
+
+    // delta sync: rows written after (since, afterId) up to a committed version, in (change_version, id) order
+    @Query("""
+            select b from Book b
+            where b.changeVersion <= :upTo
+              and (b.changeVersion > :since or (b.changeVersion = :since and b.id > :afterId))
+            order by b.changeVersion, b.id
+            """)
+    List<Book> findChanges(@Param("since") long since,
+                           @Param("afterId") long afterId,
+                           @Param("upTo") long upTo,
+                           Limit limit);
+
+    // cache sync: ids written after (since, afterId), in (change_version, id) order, read from the index alone
+    @Query("""
+            select b.id as id, b.changeVersion as changeVersion from Book b
+            where b.changeVersion > :since or (b.changeVersion = :since and b.id > :afterId)
+            order by b.changeVersion, b.id
+            """)
+    List<ChangedId> findChangedIds(@Param("since") long since, @Param("afterId") long afterId, Limit limit);
 }
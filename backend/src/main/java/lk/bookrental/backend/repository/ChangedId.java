@@ -0,0 +1,7 @@
+package lk.bookrental.backend.repository;
+
+// projection for the cache sync poll: which row changed, and at what version
+public interface ChangedId {
+    Long getId();
+    long getChangeVersion();
+}
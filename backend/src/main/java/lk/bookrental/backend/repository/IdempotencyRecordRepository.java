@@ -0,0 +1,27 @@
+package lk.bookrental.backend.repository;
+
+import lk.bookrental.backend.db.ReadRouting;
+import lk.bookrental.backend.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // on the primary: a retry usually follows the original within the replica lag
+    @Override
+    @Transactional(readOnly = true, label = ReadRouting.PRIMARY)
+    Optional<IdempotencyRecord> findById(String id);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") Instant cutoff);
+}
@@ -0,0 +1,7 @@
+package lk.bookrental.backend.repository;
+
+// projection for GROUP BY count queries
+public interface KeyCount {
+    String getKey();
+    Long getCount();
+}
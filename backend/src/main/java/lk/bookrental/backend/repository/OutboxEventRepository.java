@@ -0,0 +1,24 @@
+package lk.bookrental.backend.repository;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import lk.bookrental.backend.model.OutboxEvent;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // for a dispatcher claiming a batch: rows another dispatcher has locked are skipped rather than waited for
+    // (-2 is Hibernate's SKIP LOCKED timeout); runs in the caller's write transaction, so always on the primary
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = "-2"))
+    List<OutboxEvent> findByNextAttemptAtLessThanEqualOrderById(Instant now, Limit limit);
+}
@@ -0,0 +1,9 @@
+package lk.bookrental.backend.repository;
+
+import java.time.LocalDate;
+
+// projection for the overdue scan: just enough to flag the row and continue the keyset
+public interface RentalDue {
+    Long getId();
+    LocalDate getDueDate();
+}
@@ -1,9 +1,192 @@
 package lk.bookrental.backend.repository;
 
+import lk.bookrental.backend.db.ReadRouting;
+import lk.bookrental.backend.dto.response.RentalResponse;
+import jakarta.persistence.QueryHint;
 import lk.bookrental.backend.model.Rental;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface RentalRepository extends JpaRepository<Rental, Long> {
+
+    // read paths project rental + book in one join straight into the response shape, so no entities are managed
+    @Query("""
+            select new lk.bookrental.backend.dto.response.RentalResponse(
+                r.id, r.username, r.rentalDate, r.returnDate, r.dueDate, r.overdueSince,
+                b.id, b.title, b.author, b.genre, b.availabilityStatus)
+            from Rental r join r.book b
+            order by r.id
+            """)
+    List<RentalResponse> findAllResponses();
+
+    @Query("""
+            select new lk.bookrental.backend.dto.response.RentalResponse(
+                r.id, r.username, r.rentalDate, r.returnDate, r.dueDate, r.overdueSince,
+                b.id, b.title, b.author, b.genre, b.availabilityStatus)
+            from Rental r join r.book b
+            where r.id = :id
+            """)
+    Optional<RentalResponse> findResponseById(@Param("id") Long id);
+
+    // forward-only cursor for exports: rows are fetched from the driver in chunks and never enter the persistence context;
+    // must be consumed inside a read-only transaction and closed by the caller
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select new lk.bookrental.backend.dto.response.RentalResponse(
+                r.id, r.username, r.rentalDate, r.returnDate, r.dueDate, r.overdueSince,
+                b.id, b.title, b.author, b.genre, b.availabilityStatus)
+            from Rental r join r.book b
+            order by r.id
+            """)
+    Stream<RentalResponse> streamAllResponses();
+
+    long countByReturnDateIsNull();
+
+    long countByUsernameAndReturnDateIsNull(String username);
+
+    @Query("""
+            select r.username as key, count(r) as count from Rental r
+            where r.username in :usernames and r.returnDate is null
+            group by r.username
+            """)
+    List<KeyCount> countActiveByUsernameIn(@Param("usernames") Collection<String> usernames);
+
+    // keyset page over idx_rentals_username_date, newest rental first
+    @Query("""
+            select new lk.bookrental.backend.dto.response.RentalResponse(
+                r.id, r.username, r.rentalDate, r.returnDate, r.dueDate, r.overdueSince,
+                b.id, b.title, b.author, b.genre, b.availabilityStatus)
+            from Rental r join r.book b
+            where r.username = :username
+              and (:activeOnly = false or r.returnDate is null)
+              and (:beforeDate is null or r.rentalDate < :beforeDate or (r.rentalDate = :beforeDate and r.id < :beforeId))
+            order by r.rentalDate desc, r.id desc
+            """)
+    List<RentalResponse> findUserHistory(@Param("username") String username,
+                                         @Param("activeOnly") boolean activeOnly,
+                                         @Param("beforeDate") LocalDate beforeDate,
+                                         @Param("beforeId") long beforeId,
+                                         Limit limit);
+
+    // all-time counts: live rentals plus those moved to rentals_archive
+    @Query("""
+            select t.k as key, sum(t.n) as count from (
+                select b.genre as k, count(r) as n from Rental r join r.book b group by b.genre
+                union all
+                select b.genre as k, count(a) as n from ArchivedRental a join a.book b group by b.genre
+            ) t
+            group by t.k order by sum(t.n) desc
+            """)
+    List<KeyCount> countByGenre(Limit limit);
+
+    @Query("""
+            select t.k as key, sum(t.n) as count from (
+                select r.username as k, count(r) as n from Rental r group by r.username
+                union all
+                select a.username as k, count(a) as n from ArchivedRental a group by a.username
+            ) t
+            group by t.k order by sum(t.n) desc
+            """)
+    List<KeyCount> countByUsername(Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("""
+            select r from Rental r join fetch r.book
+            where r.changeVersion <= :upTo
+              and (r.changeVersion > :since or (r.changeVersion = :since and r.id > :afterId))
+            order by r.changeVersion, r.id
+            """)
+    List<Rental> findChanges(@Param("since") long since,
+                             @Param("afterId") long afterId,
+                             @Param("upTo") long upTo,
+                             Limit limit);
+
+    // rental change sync: ids written after (since, afterId), from idx_rentals_change_version_id alone
+    @Query("""
+            select r.id as id, r.changeVersion as changeVersion from Rental r
+            where r.changeVersion > :since or (r.changeVersion = :since and r.id > :afterId)
+            order by r.changeVersion, r.id
+            """)
+    List<ChangedId> findChangedIds(@Param("since") long since, @Param("afterId") long afterId, Limit limit);
+
+    @Query("select r from Rental r join fetch r.book where r.id in :ids")
+    List<Rental> findAllWithBookByIdIn(@Param("ids") Collection<Long> ids);
+
+    // keyset page over idx_rentals_open_due, oldest due date first
+    @Query("""
+            select new lk.bookrental.backend.dto.response.RentalResponse(
+                r.id, r.username, r.rentalDate, r.returnDate, r.dueDate, r.overdueSince,
+                b.id, b.title, b.author, b.genre, b.availabilityStatus)
+            from Rental r join r.book b
+            where r.returnDate is null
+              and r.dueDate < :today
+              and (:afterDue is null or r.dueDate > :afterDue or (r.dueDate = :afterDue and r.id > :afterId))
+            order by r.dueDate, r.id
+            """)
+    List<RentalResponse> findOverdueResponses(@Param("today") LocalDate today,
+                                              @Param("afterDue") LocalDate afterDue,
+                                              @Param("afterId") long afterId,
+                                              Limit limit);
+
+    // the same range, minus rentals that are already flagged
+    @Query("""
+            select r.id as id, r.dueDate as dueDate from Rental r
+            where r.returnDate is null
+              and r.overdueSince is null
+              and r.dueDate < :today
+              and (:afterDue is null or r.dueDate > :afterDue or (r.dueDate = :afterDue and r.id > :afterId))
+            order by r.dueDate, r.id
+            """)
+    List<RentalDue> findNewlyOverdue(@Param("today") LocalDate today,
+                                     @Param("afterDue") LocalDate afterDue,
+                                     @Param("afterId") long afterId,
+                                     Limit limit);
+
+    // re-checks the conditions, so a rental returned since it was read is left alone
+    @Modifying
+    @Query("""
+            update Rental r set r.overdueSince = :today, r.changeVersion = :changeVersion
+            where r.id in :ids and r.returnDate is null and r.overdueSince is null
+            """)
+    int markOverdue(@Param("ids") Collection<Long> ids,
+                    @Param("today") LocalDate today,
+                    @Param("changeVersion") long changeVersion);
+
+    @Query("""
+            select new lk.bookrental.backend.dto.response.RentalResponse(
+                r.id, r.username, r.rentalDate, r.returnDate, r.dueDate, r.overdueSince,
+                b.id, b.title, b.author, b.genre, b.availabilityStatus)
+            from Rental r join r.book b
+            where r.id in :ids
+            order by r.id
+            """)
+    List<RentalResponse> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // returned before the cutoff: a range of idx_rentals_open_due, read in index order so each page stops after
+    // limit rows instead of sorting the whole range. Read from the primary, since a replica that has not seen the
+    // last page move would hand back the same ids again
+    @Transactional(readOnly = true, label = ReadRouting.PRIMARY)
+    @Query("select r.id from Rental r where r.returnDate < :cutoff order by r.returnDate, r.dueDate, r.id")
+    List<Long> findArchivable(@Param("cutoff") LocalDate cutoff, Limit limit);
+
+    @Modifying
+    @Query("delete from Rental r where r.id in :ids and r.returnDate < :cutoff")
+    int deleteArchived(@Param("ids") Collection<Long> ids, @Param("cutoff") LocalDate cutoff);
 }
@@ -0,0 +1,32 @@
+package lk.bookrental.backend.repository;
+
+import lk.bookrental.backend.model.Tombstone;
+import lk.bookrental.backend.model.TombstoneType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TombstoneRepository extends JpaRepository<Tombstone, Long> {
+
+    @Query("""
+            select t.entityId from Tombstone t
+            where t.entityType = :type and t.changeVersion > :since and t.changeVersion <= :upTo
+            order by t.changeVersion, t.entityId
+            """)
+    List<Long> findDeletedIds(@Param("type") TombstoneType type, @Param("since") long since, @Param("upTo") long upTo);
+
+    // cache sync: deletes after (since, afterId), in (change_version, entity_id) order
+    @Query("""
+            select t.entityId as id, t.changeVersion as changeVersion from Tombstone t
+            where t.entityType = :type
+              and (t.changeVersion > :since or (t.changeVersion = :since and t.entityId > :afterId))
+            order by t.changeVersion, t.entityId
+            """)
+    List<ChangedId> findChangedIds(@Param("type") TombstoneType type, @Param("since") long since,
+                                   @Param("afterId") long afterId, Limit limit);
+}
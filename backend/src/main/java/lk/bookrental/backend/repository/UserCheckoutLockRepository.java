@@ -0,0 +1,22 @@
+package lk.bookrental.backend.repository;
+
+import lk.bookrental.backend.model.UserCheckoutLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserCheckoutLockRepository extends JpaRepository<UserCheckoutLock, String> {
+
+    // creates or bumps the user's row and holds its row lock until commit. An upsert rather than a locking read
+    // of the user's rentals: a locking read that finds nothing only takes gap locks, which do not conflict with
+    // each other, so two first checkouts would both pass and then deadlock on their inserts
+    @Modifying
+    @Query(value = """
+            insert into user_checkout_locks (username, checkouts) values (:username, 1)
+            on duplicate key update checkouts = checkouts + 1
+            """, nativeQuery = true)
+    int lock(@Param("username") String username);
+}
@@ -0,0 +1,520 @@
+package lk.bookrental.backend.search;
+
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over book title, author and genre tokens.
+ * <p>
+ * Every indexed version of a book gets a new ordinal, so each postings list is appended in ascending order
+ * and stays sorted without re-sorting. Re-indexing a book whose tokens did not change, e.g. after a checkout,
+ * keeps its ordinal. Updates and deletes only mark the old ordinal dead; dead entries are skipped at query
+ * time and compacted away once they make up a quarter of the index. Query tokens match terms exactly or by
+ * prefix (autocomplete), every query token must match, and results are ranked by which field matched and
+ * whether the match was exact. Scoring works on primitive arrays and keeps only the best {@code limit}
+ * results, so a common token costs one pass over its postings and no per-candidate allocation.
+ * <p>
+ * Single-word queries, the autocomplete case, do not walk postings at all once warm: each term keeps its best
+ * {@value #LEADERS} entries, as an exact and as a prefix match, and a query merges those of the terms it matched.
+ * A term's leaders are dropped when it gains an entry and rebuilt when deletes leave fewer than requested.
+ */
+@Component
+public class BookSearchIndex {
+
+    static final int TITLE = 1;
+    static final int AUTHOR = 2;
+    static final int GENRE = 4;
+
+    // the most results a search may ask for; BookServiceImpl caps its limit at the same number
+    static final int LEADERS = 100;
+
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private final Map<Long, Integer> ordinalByBookId = new HashMap<>();
+    private final BitSet dead = new BitSet();
+    private long[] bookIdByOrdinal = new long[1024];
+    private long[] fingerprintByOrdinal = new long[1024];
+    private int nextOrdinal;
+    private int deadCount;
+
+    public void index(Long bookId, String title, String author, String genre) {
+        Map<String, Integer> tokens = new LinkedHashMap<>();
+        addTokens(tokens, title, TITLE);
+        addTokens(tokens, author, AUTHOR);
+        addTokens(tokens, genre, GENRE);
+
+        long fingerprint = fingerprint(tokens);
+
+        lock.writeLock().lock();
+        try {
+            Integer previous = ordinalByBookId.get(bookId);
+            if (previous != null && fingerprintByOrdinal[previous] == fingerprint) {
+                return;
+            }
+            markDead(previous);
+            int ordinal = nextOrdinal++;
+            if (ordinal == bookIdByOrdinal.length) {
+                bookIdByOrdinal = Arrays.copyOf(bookIdByOrdinal, ordinal * 2);
+                fingerprintByOrdinal = Arrays.copyOf(fingerprintByOrdinal, ordinal * 2);
+            }
+            bookIdByOrdinal[ordinal] = bookId;
+            fingerprintByOrdinal[ordinal] = fingerprint;
+            ordinalByBookId.put(bookId, ordinal);
+            tokens.forEach((token, fields) -> terms.computeIfAbsent(token, t -> new Postings()).add(ordinal, fields));
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            markDead(ordinalByBookId.remove(bookId));
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            terms.clear();
+            ordinalByBookId.clear();
+            dead.clear();
+            nextOrdinal = 0;
+            deadCount = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinalByBookId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ordinals handed out so far, live or dead; grows only when a book's tokens change
+    int ordinalsUsed() {
+        lock.readLock().lock();
+        try {
+            return nextOrdinal;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of the best matching books, best first.
+     */
+    public List<Long> search(String query, int limit) {
+        List<String> queryTokens = tokenize(query);
+        if (queryTokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<TokenMatches> matches = new ArrayList<>(queryTokens.size());
+            for (String token : queryTokens) {
+                TokenMatches tokenMatches = match(token);
+                if (tokenMatches.terms.isEmpty()) {
+                    return List.of();
+                }
+                matches.add(tokenMatches);
+            }
+            if (matches.size() == 1 && limit <= LEADERS) {
+                return leaders(matches.get(0), limit);
+            }
+            // start from the most selective token so the candidate set is as small as possible
+            matches.sort(Comparator.comparingLong(TokenMatches::postingsSize));
+
+            Candidates candidates = candidates(matches.get(0));
+            for (int m = 1; m < matches.size() && candidates.size > 0; m++) {
+                narrow(candidates, matches.get(m));
+            }
+
+            return ranked(candidates, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // a book in the best limit of a single-token query is among the leaders of the term that gave its score,
+    // so merging the terms' leaders, at most LEADERS each, ranks exactly what a walk of every postings would
+    private List<Long> leaders(TokenMatches match, int limit) {
+        long[] packed = new long[match.terms.size() * LEADERS];
+        int n = 0;
+        for (Map.Entry<String, Boolean> term : match.terms.entrySet()) {
+            Leaders leaders = leaders(terms.get(term.getKey()), term.getValue(), limit);
+            for (int i = 0; i < leaders.ordinals.length; i++) {
+                if (!dead.get(leaders.ordinals[i])) {
+                    packed[n++] = (long) leaders.ordinals[i] << 8 | leaders.scores[i];
+                }
+            }
+        }
+        return ranked(distinct(packed, n), limit);
+    }
+
+    // the term's leaders for this kind of match, rebuilt when missing or when too few of them are still alive
+    private Leaders leaders(Postings postings, boolean exact, int limit) {
+        Leaders leaders = exact ? postings.exactLeaders : postings.prefixLeaders;
+        if (leaders != null && (leaders.complete || leaders.alive(dead) >= limit)) {
+            return leaders;
+        }
+        TopHits top = new TopHits(LEADERS);
+        int scored = 0;
+        for (int i = 0; i < postings.size; i++) {
+            int score = score(postings.fields[i], exact);
+            if (score > 0 && !dead.get(postings.ordinals[i])) {
+                top.offer(bookIdByOrdinal[postings.ordinals[i]], postings.ordinals[i], score);
+                scored++;
+            }
+        }
+        leaders = top.leaders(scored <= LEADERS);
+        // readers may race to rebuild the same leaders; either result is correct, and writers hold the write lock
+        if (exact) {
+            postings.exactLeaders = leaders;
+        } else {
+            postings.prefixLeaders = leaders;
+        }
+        return leaders;
+    }
+
+    private List<Long> ranked(Candidates candidates, int limit) {
+        TopHits top = new TopHits(Math.min(limit, candidates.size));
+        for (int i = 0; i < candidates.size; i++) {
+            top.offer(bookIdByOrdinal[candidates.ordinals[i]], candidates.ordinals[i], candidates.scores[i]);
+        }
+        return top.ranked();
+    }
+
+    // the live ordinals matching the first token, ascending, each with its best score; a single term's postings
+    // are already in order, several are packed as ordinal << 8 | score and sorted, keeping the last of each run
+    private Candidates candidates(TokenMatches match) {
+        if (match.terms.size() == 1) {
+            Map.Entry<String, Boolean> term = match.terms.entrySet().iterator().next();
+            Postings postings = terms.get(term.getKey());
+            Candidates candidates = new Candidates(postings.size);
+            for (int i = 0; i < postings.size; i++) {
+                int score = score(postings.fields[i], term.getValue());
+                if (score > 0 && !dead.get(postings.ordinals[i])) {
+                    candidates.add(postings.ordinals[i], score);
+                }
+            }
+            return candidates;
+        }
+        long[] packed = new long[Math.toIntExact(match.postingsSize)];
+        int n = 0;
+        for (Map.Entry<String, Boolean> term : match.terms.entrySet()) {
+            Postings postings = terms.get(term.getKey());
+            for (int i = 0; i < postings.size; i++) {
+                int score = score(postings.fields[i], term.getValue());
+                if (score > 0 && !dead.get(postings.ordinals[i])) {
+                    packed[n++] = (long) postings.ordinals[i] << 8 | score;
+                }
+            }
+        }
+        return distinct(packed, n);
+    }
+
+    // ordinal << 8 | score entries sorted, keeping the last, i.e. best scored, entry of each ordinal
+    private static Candidates distinct(long[] packed, int n) {
+        Arrays.sort(packed, 0, n);
+        Candidates candidates = new Candidates(n);
+        for (int i = 0; i < n; i++) {
+            int ordinal = (int) (packed[i] >>> 8);
+            if (i + 1 == n || (int) (packed[i + 1] >>> 8) != ordinal) {
+                candidates.add(ordinal, (int) (packed[i] & 0xFF));
+            }
+        }
+        return candidates;
+    }
+
+    // drops the candidates the next token does not match, in place, and adds its best score to the rest
+    private void narrow(Candidates candidates, TokenMatches next) {
+        Postings[] postings = new Postings[next.terms.size()];
+        boolean[] exact = new boolean[postings.length];
+        int t = 0;
+        for (Map.Entry<String, Boolean> term : next.terms.entrySet()) {
+            postings[t] = terms.get(term.getKey());
+            exact[t++] = term.getValue();
+        }
+        int kept = 0;
+        for (int i = 0; i < candidates.size; i++) {
+            int ordinal = candidates.ordinals[i];
+            int best = 0;
+            for (int j = 0; j < postings.length; j++) {
+                best = Math.max(best, score(postings[j].fieldsOf(ordinal), exact[j]));
+            }
+            if (best > 0) {
+                candidates.ordinals[kept] = ordinal;
+                candidates.scores[kept] = candidates.scores[i] + best;
+                kept++;
+            }
+        }
+        candidates.size = kept;
+    }
+
+    // exact term plus up to MAX_PREFIX_EXPANSIONS terms that start with the token
+    private TokenMatches match(String token) {
+        Map<String, Boolean> matched = new LinkedHashMap<>();
+        long postingsSize = 0;
+        Postings exact = terms.get(token);
+        if (exact != null) {
+            matched.put(token, true);
+            postingsSize += exact.size;
+        }
+        NavigableMap<String, Postings> prefixed = terms.subMap(token, false, token + Character.MAX_VALUE, false);
+        for (Map.Entry<String, Postings> entry : prefixed.entrySet()) {
+            if (matched.size() >= MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+            matched.put(entry.getKey(), false);
+            postingsSize += entry.getValue().size;
+        }
+        return new TokenMatches(matched, postingsSize);
+    }
+
+    // title beats author beats genre, and an exact token beats a prefix; genre only matches whole tokens
+    private static int score(int fields, boolean exact) {
+        int best = 0;
+        if ((fields & TITLE) != 0) best = 5;
+        else if ((fields & AUTHOR) != 0) best = 3;
+        else if ((fields & GENRE) != 0 && exact) best = 1;
+        return exact ? best * 2 : best;
+    }
+
+    private void markDead(Integer ordinal) {
+        if (ordinal != null && !dead.get(ordinal)) {
+            dead.set(ordinal);
+            deadCount++;
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (deadCount < 1024 || deadCount * 4 < ordinalByBookId.size()) {
+            return;
+        }
+        terms.values().removeIf(postings -> postings.compact(dead));
+        // dead ordinals are never reused and no postings reference them any more
+        dead.clear();
+        deadCount = 0;
+    }
+
+    // 64-bit FNV-1a over the tokens and their fields: equal means re-indexing would change nothing
+    private static long fingerprint(Map<String, Integer> tokens) {
+        long hash = 0xcbf29ce484222325L;
+        for (Map.Entry<String, Integer> token : tokens.entrySet()) {
+            String term = token.getKey();
+            for (int i = 0; i < term.length(); i++) {
+                hash = (hash ^ term.charAt(i)) * 0x100000001b3L;
+            }
+            hash = (hash ^ (0x10000 | token.getValue())) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static void addTokens(Map<String, Integer> tokens, String text, int field) {
+        for (String token : tokenize(text)) {
+            tokens.merge(token, field, (a, b) -> a | b);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        return Arrays.stream(NON_WORD.split(normalized)).filter(token -> !token.isEmpty()).distinct().toList();
+    }
+
+    private record TokenMatches(Map<String, Boolean> terms, long postingsSize) {
+    }
+
+    // complete when every scoring live entry fit, so deletes can never leave too few of them
+    private record Leaders(int[] ordinals, int[] scores, boolean complete) {
+
+        private int alive(BitSet dead) {
+            int alive = 0;
+            for (int ordinal : ordinals) {
+                if (!dead.get(ordinal)) {
+                    alive++;
+                }
+            }
+            return alive;
+        }
+    }
+
+    private static final class Candidates {
+        private final int[] ordinals;
+        private final int[] scores;
+        private int size;
+
+        private Candidates(int capacity) {
+            ordinals = new int[capacity];
+            scores = new int[capacity];
+        }
+
+        private void add(int ordinal, int score) {
+            ordinals[size] = ordinal;
+            scores[size] = score;
+            size++;
+        }
+    }
+
+    // the best results so far in a heap whose root is the worst of them, so most candidates are turned away
+    // by one comparison; higher score ranks first, then lower book id
+    private static final class TopHits {
+        private final long[] ids;
+        private final int[] ordinals;
+        private final int[] scores;
+        private int size;
+
+        private TopHits(int limit) {
+            ids = new long[limit];
+            ordinals = new int[limit];
+            scores = new int[limit];
+        }
+
+        private void offer(long id, int ordinal, int score) {
+            if (size < ids.length) {
+                ids[size] = id;
+                ordinals[size] = ordinal;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (size > 0 && ranksAbove(id, score, 0)) {
+                ids[0] = id;
+                ordinals[0] = ordinal;
+                scores[0] = score;
+                siftDown(0, size);
+            }
+        }
+
+        // the kept entries in heap order, which is all a term's leaders need
+        private Leaders leaders(boolean complete) {
+            return new Leaders(Arrays.copyOf(ordinals, size), Arrays.copyOf(scores, size), complete);
+        }
+
+        // best first: moving the worst to the back one by one leaves the array in ranking order
+        private List<Long> ranked() {
+            for (int end = size - 1; end > 0; end--) {
+                swap(0, end);
+                siftDown(0, end);
+            }
+            List<Long> ranked = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                ranked.add(ids[i]);
+            }
+            return ranked;
+        }
+
+        private boolean ranksAbove(long id, int score, int i) {
+            return score > scores[i] || (score == scores[i] && id < ids[i]);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (!ranksAbove(ids[parent], scores[parent], i)) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i, int end) {
+            while (true) {
+                int worst = i;
+                for (int child = 2 * i + 1; child <= 2 * i + 2 && child < end; child++) {
+                    if (ranksAbove(ids[worst], scores[worst], child)) {
+                        worst = child;
+                    }
+                }
+                if (worst == i) {
+                    return;
+                }
+                swap(i, worst);
+                i = worst;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long id = ids[a];
+            ids[a] = ids[b];
+            ids[b] = id;
+            int ordinal = ordinals[a];
+            ordinals[a] = ordinals[b];
+            ordinals[b] = ordinal;
+            int score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+
+    private static final class Postings {
+        private int[] ordinals = new int[2];
+        private byte[] fields = new byte[2];
+        private int size;
+        private volatile Leaders exactLeaders;
+        private volatile Leaders prefixLeaders;
+
+        private void add(int ordinal, int fieldMask) {
+            exactLeaders = null;
+            prefixLeaders = null;
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                fields = Arrays.copyOf(fields, size * 2);
+            }
+            ordinals[size] = ordinal;
+            fields[size] = (byte) fieldMask;
+            size++;
+        }
+
+        private int fieldsOf(int ordinal) {
+            int i = Arrays.binarySearch(ordinals, 0, size, ordinal);
+            return i >= 0 ? fields[i] : 0;
+        }
+
+        // drops dead entries, and the leaders too, as the dead set is cleared next; returns true when nothing is left
+        private boolean compact(BitSet dead) {
+            exactLeaders = null;
+            prefixLeaders = null;
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (!dead.get(ordinals[i])) {
+                    ordinals[kept] = ordinals[i];
+                    fields[kept] = fields[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            return size == 0;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package lk.bookrental.backend.search;
+
+import lk.bookrental.backend.db.ReadRouting;
+import lk.bookrental.backend.event.BookChangedEvent;
+import lk.bookrental.backend.event.ChangeType;
+import lk.bookrental.backend.model.Book;
+import lk.bookrental.backend.repository.BookRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+@Component
+public class BookSearchIndexer {
+
+    private static final Logger log = LoggerFactory.getLogger(BookSearchIndexer.class);
+
+    private final BookSearchIndex searchIndex;
+    private final BookRepository bookRepository;
+    private final ReadRouting readRouting;
+    private final int pageSize;
+
+    public BookSearchIndexer(BookSearchIndex searchIndex, BookRepository bookRepository, ReadRouting readRouting,
+                             @Value("${bookrental.search.rebuild-page-size:5000}") int pageSize) {
+        this.searchIndex = searchIndex;
+        this.bookRepository = bookRepository;
+        this.readRouting = readRouting;
+        this.pageSize = pageSize;
+    }
+
+    // walks the catalog in keyset pages so the whole table is never held in memory at once; reads the primary,
+    // since commit events keep the index current from here on and a lagging replica would miss earlier commits
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        readRouting.onPrimary(() -> {
+            load();
+            return null;
+        });
+    }
+
+    private void load() {
+        long started = System.nanoTime();
+        searchIndex.clear();
+        long afterId = 0;
+        List<Book> page;
+        do {
+            page = bookRepository.findPage(afterId, null, null, null, Limit.of(pageSize));
+            for (Book book : page) {
+                searchIndex.index(book.getId(), book.getTitle(), book.getAuthor(), book.getGenre());
+            }
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == pageSize);
+        log.info("Indexed {} books for search in {} ms", searchIndex.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // only committed changes reach the index; fallbackExecution covers publishers running outside a transaction
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.type() == ChangeType.DELETED) {
+            searchIndex.remove(event.bookId());
+        } else {
+            searchIndex.index(event.bookId(), event.book().getTitle(), event.book().getAuthor(), event.book().getGenre());
+        }
+    }
+}
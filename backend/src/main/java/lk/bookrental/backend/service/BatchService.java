@@ -0,0 +1,14 @@
+package lk.bookrental.backend.service;
+
+import lk.bookrental.backend.dto.request.BookBatchItem;
+import lk.bookrental.backend.dto.request.RentalBatchItem;
+import lk.bookrental.backend.dto.response.BatchResponse;
+import lk.bookrental.backend.dto.response.BookResponse;
+import lk.bookrental.backend.dto.response.RentalResponse;
+
+import java.util.List;
+
+public interface BatchService {
+    BatchResponse<BookResponse> saveBooks(List<BookBatchItem> items);
+    BatchResponse<RentalResponse> saveRentals(List<RentalBatchItem> items);
+}
@@ -0,0 +1,11 @@
+package lk.bookrental.backend.service;
+
+import lk.bookrental.backend.dto.response.ImportJobResponse;
+import org.springframework.http.MediaType;
+
+import java.io.InputStream;
+
+public interface BookImportService {
+    ImportJobResponse startImport(InputStream body, MediaType contentType);
+    ImportJobResponse getImport(String id);
+}
@@ -1,7 +1,9 @@
 package lk.bookrental.backend.service;
 
+import lk.bookrental.backend.dto.request.BookPageRequest;
 import lk.bookrental.backend.dto.request.BookRequest;
 import lk.bookrental.backend.dto.response.BookResponse;
+import lk.bookrental.backend.dto.response.CursorPageResponse;
 
 import java.util.List;
 
@@ -11,4 +13,6 @@ public interface BookService {
     void deleteBook(Long id);
     BookResponse getBookById(Long id);
     List<BookResponse> getAllBooks();
+    CursorPageResponse<BookResponse> getBookPage(BookPageRequest request);
+    List<BookResponse> searchBooks(String query, Integer limit);
 }
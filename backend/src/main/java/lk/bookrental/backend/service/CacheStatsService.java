@@ -0,0 +1,9 @@
+package lk.bookrental.backend.service;
+
+import lk.bookrental.backend.dto.response.CacheStatsResponse;
+
+import java.util.List;
+
+public interface CacheStatsService {
+    List<CacheStatsResponse> getCacheStats();
+}
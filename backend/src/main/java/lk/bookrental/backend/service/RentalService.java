@@ -3,13 +3,21 @@ package lk.bookrental.backend.service;
 import lk.bookrental.backend.dto.request.RentalRequest;
 import lk.bookrental.backend.dto.response.RentalResponse;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface RentalService {
     RentalResponse createRental(RentalRequest request);
     RentalResponse updateRental(Long id, RentalRequest request);
-    RentalResponse getRentalById(Long id);
-    List<RentalResponse> getAllRentals();
+    // history: also look in the archive of long-returned rentals
+    RentalResponse getRentalById(Long id, boolean history);
+    List<RentalResponse> getAllRentals(boolean history);
+    List<RentalResponse> getUserRentals(String username, boolean activeOnly, LocalDate beforeDate, Long beforeId, Integer limit,
+                                        boolean history);
+    long countActiveRentals(String username);
+    List<RentalResponse> getOverdueRentals(LocalDate afterDue, Long afterId, Integer limit);
+    void exportRentals(boolean history, Consumer<RentalResponse> sink);
     void deleteRental(Long id);
 }
 
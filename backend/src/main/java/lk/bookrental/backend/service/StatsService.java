@@ -0,0 +1,7 @@
+package lk.bookrental.backend.service;
+
+import lk.bookrental.backend.dto.response.StatsResponse;
+
+public interface StatsService {
+    StatsResponse getStats(boolean fresh);
+}
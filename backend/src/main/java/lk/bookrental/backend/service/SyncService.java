@@ -0,0 +1,10 @@
+package lk.bookrental.backend.service;
+
+import lk.bookrental.backend.dto.response.BookResponse;
+import lk.bookrental.backend.dto.response.DeltaResponse;
+import lk.bookrental.backend.dto.response.RentalResponse;
+
+public interface SyncService {
+    DeltaResponse<BookResponse> getBookChanges(long since, Long after, Integer limit);
+    DeltaResponse<RentalResponse> getRentalChanges(long since, Long after, Integer limit);
+}
@@ -0,0 +1,312 @@
+package lk.bookrental.backend.service.impl;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import lk.bookrental.backend.config.CacheConfig;
+import lk.bookrental.backend.dto.request.BookBatchItem;
+import lk.bookrental.backend.dto.request.RentalBatchItem;
+import lk.bookrental.backend.dto.response.BatchItemResult;
+import lk.bookrental.backend.dto.response.BatchItemStatus;
+import lk.bookrental.backend.dto.response.BatchResponse;
+import lk.bookrental.backend.dto.response.BookResponse;
+import lk.bookrental.backend.dto.response.RentalResponse;
+import lk.bookrental.backend.event.BookAvailabilityChangedEvent;
+import lk.bookrental.backend.event.BookChangedEvent;
+import lk.bookrental.backend.event.ChangeType;
+import lk.bookrental.backend.event.RentalChangedEvent;
+import lk.bookrental.backend.model.AvailabilityStatus;
+import lk.bookrental.backend.model.Book;
+import lk.bookrental.backend.model.Rental;
+import lk.bookrental.backend.repository.BookRepository;
+import lk.bookrental.backend.repository.RentalRepository;
+import lk.bookrental.backend.repository.UserCheckoutLockRepository;
+import lk.bookrental.backend.service.BatchService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@Timed("bookrental.service")
+public class BatchServiceImpl implements BatchService {
+
+    private final BookRepository bookRepository;
+    private final RentalRepository rentalRepository;
+    private final UserCheckoutLockRepository userCheckoutLockRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter checkoutConflicts;
+    private final int chunkSize;
+    private final int maxItems;
+    private final int loanDays;
+    private final int maxActivePerUser;
+
+    public BatchServiceImpl(BookRepository bookRepository, RentalRepository rentalRepository,
+                            UserCheckoutLockRepository userCheckoutLockRepository,
+                            ApplicationEventPublisher eventPublisher, EntityManager entityManager,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${bookrental.batch.chunk-size:500}") int chunkSize,
+                            @Value("${bookrental.batch.max-items:10000}") int maxItems,
+                            @Value("${bookrental.rentals.loan-days:14}") int loanDays,
+                            @Value("${bookrental.rentals.max-active-per-user:0}") int maxActivePerUser) {
+        this.bookRepository = bookRepository;
+        this.rentalRepository = rentalRepository;
+        this.userCheckoutLockRepository = userCheckoutLockRepository;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.checkoutConflicts = RentalServiceImpl.checkoutConflicts(meterRegistry, "batch");
+        this.chunkSize = chunkSize;
+        this.maxItems = maxItems;
+        this.loanDays = loanDays;
+        this.maxActivePerUser = maxActivePerUser;
+    }
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.BOOKS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.BOOK_PAGES, allEntries = true)
+    })
+    public BatchResponse<BookResponse> saveBooks(List<BookBatchItem> items) {
+        return writeInChunks(items, this::writeBookChunk);
+    }
+
+    @Override
+    public BatchResponse<RentalResponse> saveRentals(List<RentalBatchItem> items) {
+        return writeInChunks(items, this::writeRentalChunk);
+    }
+
+    // each chunk commits on its own, so a bad chunk only fails its own items and locks are held briefly
+    private <I, R> BatchResponse<R> writeInChunks(List<I> items, ChunkWriter<I, R> writer) {
+        if (items.size() > maxItems) {
+            throw new IllegalArgumentException("Batch exceeds the limit of " + maxItems + " items");
+        }
+        List<BatchItemResult<R>> results = new ArrayList<>(items.size());
+        for (int from = 0; from < items.size(); from += chunkSize) {
+            int offset = from;
+            List<I> chunk = items.subList(from, Math.min(from + chunkSize, items.size()));
+            try {
+                results.addAll(transactionTemplate.execute(status -> {
+                    List<BatchItemResult<R>> chunkResults = writer.write(offset, chunk);
+                    // flush the chunk as JDBC batches, then drop it from the persistence context
+                    entityManager.flush();
+                    entityManager.clear();
+                    return chunkResults;
+                }));
+            } catch (RuntimeException e) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    results.add(failed(offset + i, "Chunk rolled back: " + e.getMessage()));
+                }
+            }
+        }
+        int failed = (int) results.stream().filter(r -> r.getStatus() == BatchItemStatus.FAILED).count();
+        return BatchResponse.<R>builder()
+                .succeeded(results.size() - failed)
+                .failed(failed)
+                .results(results)
+                .build();
+    }
+
+    private List<BatchItemResult<BookResponse>> writeBookChunk(int offset, List<BookBatchItem> chunk) {
+        @SuppressWarnings("unchecked")
+        BatchItemResult<BookResponse>[] results = new BatchItemResult[chunk.size()];
+        Map<Long, Book> existing = bookRepository.findAllById(chunk.stream()
+                        .map(BookBatchItem::getId).filter(id -> id != null).toList())
+                .stream().collect(Collectors.toMap(Book::getId, Function.identity()));
+
+        List<Book> created = new ArrayList<>();
+        List<Integer> createdPositions = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            BookBatchItem item = chunk.get(i);
+            if (isBlank(item.getTitle()) || isBlank(item.getAuthor()) || isBlank(item.getGenre())) {
+                results[i] = failed(offset + i, "title, author and genre are required");
+            } else if (item.getId() != null) {
+                Book book = existing.get(item.getId());
+                if (book == null) {
+                    results[i] = failed(offset + i, "Book not found");
+                    continue;
+                }
+                book.setTitle(item.getTitle());
+                book.setAuthor(item.getAuthor());
+                book.setGenre(item.getGenre());
+                if (item.getAvailabilityStatus() != null) {
+                    book.setAvailabilityStatus(item.getAvailabilityStatus());
+                }
+                BookResponse response = ResponseMapper.toResponse(book);
+                eventPublisher.publishEvent(new BookChangedEvent(ChangeType.UPDATED, book.getId(), response));
+                results[i] = succeeded(offset + i, BatchItemStatus.UPDATED, response);
+            } else {
+                created.add(Book.builder()
+                        .title(item.getTitle())
+                        .author(item.getAuthor())
+                        .genre(item.getGenre())
+                        .availabilityStatus(item.getAvailabilityStatus() != null ? item.getAvailabilityStatus() : AvailabilityStatus.AVAILABLE)
+                        .build());
+                createdPositions.add(i);
+            }
+        }
+
+        List<Book> saved = bookRepository.saveAll(created);
+        for (int j = 0; j < saved.size(); j++) {
+            int i = createdPositions.get(j);
+            BookResponse response = ResponseMapper.toResponse(saved.get(j));
+            eventPublisher.publishEvent(new BookChangedEvent(ChangeType.CREATED, response.getId(), response));
+            results[i] = succeeded(offset + i, BatchItemStatus.CREATED, response);
+        }
+        return Arrays.asList(results);
+    }
+
+    private List<BatchItemResult<RentalResponse>> writeRentalChunk(int offset, List<RentalBatchItem> chunk) {
+        @SuppressWarnings("unchecked")
+        BatchItemResult<RentalResponse>[] results = new BatchItemResult[chunk.size()];
+
+        List<String> checkoutUsers = lockCheckoutUsers(chunk);
+
+        // returns are applied before checkouts, so a chunk can hand a book back and rent it out again
+        List<Long> updateIds = chunk.stream().map(RentalBatchItem::getId).filter(id -> id != null).toList();
+        Map<Long, Rental> existing = updateIds.isEmpty() ? Map.of() : rentalRepository.findAllWithBookByIdIn(updateIds)
+                .stream().collect(Collectors.toMap(Rental::getId, Function.identity()));
+        for (int i = 0; i < chunk.size(); i++) {
+            RentalBatchItem item = chunk.get(i);
+            if (item.getId() == null) {
+                continue;
+            }
+            Rental rental = existing.get(item.getId());
+            if (rental == null) {
+                results[i] = failed(offset + i, "Rental not found");
+                continue;
+            }
+            if (item.getUsername() != null) rental.setUsername(item.getUsername());
+            if (item.getRentalDate() != null) rental.setRentalDate(item.getRentalDate());
+            if (item.getDueDate() != null) {
+                if (item.getDueDate().isBefore(rental.getRentalDate())) {
+                    results[i] = failed(offset + i, "dueDate cannot be before rentalDate");
+                    continue;
+                }
+                rental.setDueDate(item.getDueDate());
+                if (!item.getDueDate().isBefore(LocalDate.now())) {
+                    rental.setOverdueSince(null);
+                }
+            }
+            if (item.getReturnDate() != null) {
+                if (rental.getReturnDate() == null) {
+                    rental.getBook().setAvailabilityStatus(AvailabilityStatus.AVAILABLE);
+                    eventPublisher.publishEvent(new BookAvailabilityChangedEvent(rental.getBook().getId()));
+                }
+                rental.setReturnDate(item.getReturnDate());
+            }
+            RentalResponse response = ResponseMapper.toResponse(rental);
+            eventPublisher.publishEvent(new RentalChangedEvent(ChangeType.UPDATED, rental.getId(), response));
+            results[i] = succeeded(offset + i, BatchItemStatus.UPDATED, response);
+        }
+
+        // each checkout claims its book on the loaded entity, as a single checkout does; a checkout of the same
+        // book elsewhere fails the version check when the chunk flushes and rolls the chunk back
+        Map<String, Long> activeByUser = activeRentalCounts(checkoutUsers);
+        Map<Long, Book> books = bookRepository.findAllById(chunk.stream()
+                        .filter(item -> item.getId() == null && item.getBookId() != null)
+                        .map(RentalBatchItem::getBookId).distinct().toList())
+                .stream().collect(Collectors.toMap(Book::getId, Function.identity()));
+        List<Integer> claimedPositions = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            RentalBatchItem item = chunk.get(i);
+            if (item.getId() != null) {
+                continue;
+            }
+            Book book = item.getBookId() != null ? books.get(item.getBookId()) : null;
+            if (isBlank(item.getUsername()) || item.getRentalDate() == null || item.getBookId() == null) {
+                results[i] = failed(offset + i, "username, rentalDate and bookId are required");
+            } else if (item.getDueDate() != null && item.getDueDate().isBefore(item.getRentalDate())) {
+                results[i] = failed(offset + i, "dueDate cannot be before rentalDate");
+            } else if (maxActivePerUser > 0 && activeByUser.getOrDefault(item.getUsername(), 0L) >= maxActivePerUser) {
+                results[i] = failed(offset + i, "User already has " + maxActivePerUser + " active rentals");
+            } else if (book == null) {
+                results[i] = failed(offset + i, "Book not found");
+            } else if (book.getAvailabilityStatus() != AvailabilityStatus.AVAILABLE) {
+                checkoutConflicts.increment();
+                results[i] = failed(offset + i, "Book is not available for rental");
+            } else {
+                book.setAvailabilityStatus(AvailabilityStatus.UNAVAILABLE);
+                eventPublisher.publishEvent(new BookAvailabilityChangedEvent(item.getBookId()));
+                activeByUser.merge(item.getUsername(), 1L, Long::sum);
+                claimedPositions.add(i);
+            }
+        }
+
+        List<Rental> created = new ArrayList<>(claimedPositions.size());
+        for (int i : claimedPositions) {
+            RentalBatchItem item = chunk.get(i);
+            created.add(Rental.builder()
+                    .username(item.getUsername())
+                    .rentalDate(item.getRentalDate())
+                    .returnDate(item.getReturnDate())
+                    .dueDate(RentalServiceImpl.dueDate(item.getRentalDate(), item.getDueDate(), loanDays))
+                    .book(books.get(item.getBookId()))
+                    .build());
+        }
+        List<Rental> saved = rentalRepository.saveAll(created);
+        for (int j = 0; j < saved.size(); j++) {
+            int i = claimedPositions.get(j);
+            RentalResponse response = ResponseMapper.toResponse(saved.get(j));
+            eventPublisher.publishEvent(new RentalChangedEvent(ChangeType.CREATED, response.getId(), response));
+            results[i] = succeeded(offset + i, BatchItemStatus.CREATED, response);
+        }
+        return Arrays.asList(results);
+    }
+
+    // locks the lock row of every user checking out in this chunk, as a single checkout does, in name order so
+    // two chunks cannot wait on each other. Done before the chunk reads anything, so on MySQL its snapshot starts
+    // after the locks and the counts see every checkout that committed first
+    private List<String> lockCheckoutUsers(List<RentalBatchItem> chunk) {
+        if (maxActivePerUser <= 0) {
+            return List.of();
+        }
+        List<String> usernames = chunk.stream()
+                .filter(item -> item.getId() == null && !isBlank(item.getUsername()))
+                .map(RentalBatchItem::getUsername).distinct().sorted().toList();
+        usernames.forEach(userCheckoutLockRepository::lock);
+        return usernames;
+    }
+
+    // one grouped count for every user checking out in this chunk; runs after the chunk's returns are flushed
+    private Map<String, Long> activeRentalCounts(List<String> usernames) {
+        Map<String, Long> counts = new HashMap<>();
+        if (!usernames.isEmpty()) {
+            rentalRepository.countActiveByUsernameIn(usernames).forEach(c -> counts.put(c.getKey(), c.getCount()));
+        }
+        return counts;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static <R> BatchItemResult<R> succeeded(int index, BatchItemStatus status, R item) {
+        return BatchItemResult.<R>builder().index(index).status(status).item(item).build();
+    }
+
+    private static <R> BatchItemResult<R> failed(int index, String error) {
+        return BatchItemResult.<R>builder().index(index).status(BatchItemStatus.FAILED).error(error).build();
+    }
+
+    @FunctionalInterface
+    private interface ChunkWriter<I, R> {
+        List<BatchItemResult<R>> write(int offset, List<I> chunk);
+    }
+}
@@ -0,0 +1,332 @@
+package lk.bookrental.backend.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import lk.bookrental.backend.dto.request.BookBatchItem;
+import lk.bookrental.backend.dto.request.BookRequest;
+import lk.bookrental.backend.dto.response.BatchResponse;
+import lk.bookrental.backend.dto.response.BookResponse;
+import lk.bookrental.backend.dto.response.ImportJobResponse;
+import lk.bookrental.backend.dto.response.ImportStatus;
+import lk.bookrental.backend.model.AvailabilityStatus;
+import lk.bookrental.backend.service.BatchService;
+import lk.bookrental.backend.service.BookImportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+public class BookImportServiceImpl implements BookImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(BookImportServiceImpl.class);
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv");
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final int MAX_TRACKED_JOBS = 100;
+
+    private final BatchService batchService;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    public BookImportServiceImpl(BatchService batchService, ObjectMapper objectMapper,
+                                 @Value("${bookrental.batch.chunk-size:500}") int chunkSize,
+                                 @Value("${bookrental.import.concurrency:1}") int concurrency,
+                                 @Value("${bookrental.import.queue-capacity:10}") int queueCapacity) {
+        this.batchService = batchService;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        // imports run off the request thread; a small pool and queue cap how many bulk loads compete with live traffic
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "book-import-" + threadCount.incrementAndGet()));
+    }
+
+    // a running import deletes its own spool file when interrupted; queued ones never start, so delete theirs here
+    @PreDestroy
+    public void shutdown() {
+        for (Runnable queued : executor.shutdownNow()) {
+            if (queued instanceof ImportTask task) {
+                deleteQuietly(task.file);
+            }
+        }
+    }
+
+    @Override
+    public ImportJobResponse startImport(InputStream body, MediaType contentType) {
+        boolean csv;
+        if (TEXT_CSV.includes(contentType)) {
+            csv = true;
+        } else if (MediaType.APPLICATION_NDJSON.includes(contentType)) {
+            csv = false;
+        } else {
+            throw new IllegalArgumentException("Unsupported import content type: " + contentType);
+        }
+
+        // spool the upload to disk so the request finishes quickly and the import never holds the file in heap
+        Path file = null;
+        try {
+            file = Files.createTempFile("book-import-", csv ? ".csv" : ".ndjson");
+            Files.copy(body, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            // e.g. the client gave up mid-upload; don't leave the partial spool file behind
+            if (file != null) {
+                deleteQuietly(file);
+            }
+            throw new UncheckedIOException("Could not read import body", e);
+        }
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString());
+        evictFinishedJobs();
+        jobs.put(job.id, job);
+        try {
+            executor.execute(new ImportTask(job, file, csv));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            deleteQuietly(file);
+            throw new RejectedExecutionException("Too many imports in progress, try again later", e);
+        }
+        return job.toResponse();
+    }
+
+    @Override
+    public ImportJobResponse getImport(String id) {
+        ImportJob job = jobs.get(id);
+        if (job == null) {
+            throw new EntityNotFoundException("Import not found");
+        }
+        return job.toResponse();
+    }
+
+    private void run(ImportJob job, Path file, boolean csv) {
+        job.status = ImportStatus.RUNNING;
+        job.startedAt = Instant.now();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            Map<String, Integer> columns = csv ? readHeader(reader.readLine()) : null;
+            List<BookBatchItem> chunk = new ArrayList<>(chunkSize);
+            List<Long> chunkLines = new ArrayList<>(chunkSize);
+            long lineNumber = csv ? 1 : 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                job.rowsRead++;
+                try {
+                    BookRequest request = csv ? parseCsvRow(line, columns) : objectMapper.readValue(line, BookRequest.class);
+                    validate(request);
+                    chunk.add(new BookBatchItem(null, request.getTitle(), request.getAuthor(), request.getGenre(),
+                            request.getAvailabilityStatus()));
+                    chunkLines.add(lineNumber);
+                } catch (Exception e) {
+                    job.reject(lineNumber, e.getMessage());
+                }
+                if (chunk.size() == chunkSize) {
+                    writeChunk(job, chunk, chunkLines);
+                }
+            }
+            writeChunk(job, chunk, chunkLines);
+            job.status = ImportStatus.COMPLETED;
+        } catch (Exception e) {
+            log.warn("Book import {} failed", job.id, e);
+            job.message = e.getMessage();
+            job.status = ImportStatus.FAILED;
+        } finally {
+            job.finishedAt = Instant.now();
+            deleteQuietly(file);
+        }
+    }
+
+    // one chunk = one transaction in BatchService, which flushes and clears the persistence context afterwards
+    private void writeChunk(ImportJob job, List<BookBatchItem> chunk, List<Long> chunkLines) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        BatchResponse<BookResponse> response = batchService.saveBooks(chunk);
+        job.imported += response.getSucceeded();
+        response.getResults().forEach(result -> {
+            if (result.getError() != null) {
+                job.reject(chunkLines.get(result.getIndex()), result.getError());
+            }
+        });
+        chunk.clear();
+        chunkLines.clear();
+    }
+
+    private static Map<String, Integer> readHeader(String header) {
+        if (header == null) {
+            throw new IllegalArgumentException("CSV body is empty");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = parseCsvLine(header);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(), i);
+        }
+        for (String required : List.of("title", "author", "genre")) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header is missing the '" + required + "' column");
+            }
+        }
+        return columns;
+    }
+
+    private static BookRequest parseCsvRow(String line, Map<String, Integer> columns) {
+        List<String> fields = parseCsvLine(line);
+        String status = column(fields, columns.get("availabilitystatus"));
+        return new BookRequest(
+                column(fields, columns.get("title")),
+                column(fields, columns.get("author")),
+                column(fields, columns.get("genre")),
+                status == null || status.isBlank() ? null : AvailabilityStatus.valueOf(status.trim().toUpperCase()));
+    }
+
+    private static String column(List<String> fields, Integer index) {
+        return index != null && index < fields.size() ? fields.get(index) : null;
+    }
+
+    // RFC 4180 fields on a single line: commas inside double quotes, "" for a literal quote
+    private static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static void validate(BookRequest request) {
+        if (isBlank(request.getTitle()) || isBlank(request.getAuthor()) || isBlank(request.getGenre())) {
+            throw new IllegalArgumentException("title, author and genre are required");
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private void evictFinishedJobs() {
+        if (jobs.size() < MAX_TRACKED_JOBS) {
+            return;
+        }
+        jobs.values().stream()
+                .filter(job -> job.finishedAt != null)
+                .sorted((a, b) -> a.finishedAt.compareTo(b.finishedAt))
+                .limit(jobs.size() - MAX_TRACKED_JOBS + 1L)
+                .forEach(job -> jobs.remove(job.id));
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete import spool file {}", file, e);
+        }
+    }
+
+    // progress is written by the single import thread and read by status requests, hence volatile
+    // a named task rather than a lambda, so shutdown can find the spool files of imports that never started
+    private final class ImportTask implements Runnable {
+        private final ImportJob job;
+        private final Path file;
+        private final boolean csv;
+
+        private ImportTask(ImportJob job, Path file, boolean csv) {
+            this.job = job;
+            this.file = file;
+            this.csv = csv;
+        }
+
+        @Override
+        public void run() {
+            BookImportServiceImpl.this.run(job, file, csv);
+        }
+    }
+
+    private static final class ImportJob {
+        private final String id;
+        private volatile ImportStatus status = ImportStatus.QUEUED;
+        private volatile long rowsRead;
+        private volatile long imported;
+        private volatile long failed;
+        private final List<String> errors = new ArrayList<>();
+        private volatile String message;
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+
+        private ImportJob(String id) {
+            this.id = id;
+        }
+
+        private void reject(long lineNumber, String error) {
+            failed++;
+            synchronized (errors) {
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add("line " + lineNumber + ": " + error);
+                }
+            }
+        }
+
+        private ImportJobResponse toResponse() {
+            List<String> errorsCopy;
+            synchronized (errors) {
+                errorsCopy = List.copyOf(errors);
+            }
+            return ImportJobResponse.builder()
+                    .id(id)
+                    .status(status)
+                    .rowsRead(rowsRead)
+                    .imported(imported)
+                    .failed(failed)
+                    .errors(errorsCopy)
+                    .message(message)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .build();
+        }
+    }
+}
@@ -1,27 +1,56 @@
 package lk.bookrental.backend.service.impl;
 
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityNotFoundException;
+import lk.bookrental.backend.config.CacheConfig;
+import lk.bookrental.backend.dto.request.BookPageRequest;
 import lk.bookrental.backend.dto.request.BookRequest;
 import lk.bookrental.backend.dto.response.BookResponse;
+import lk.bookrental.backend.dto.response.CursorPageResponse;
+import lk.bookrental.backend.event.BookChangedEvent;
+import lk.bookrental.backend.event.ChangeType;
 import lk.bookrental.backend.model.AvailabilityStatus;
 import lk.bookrental.backend.model.Book;
 import lk.bookrental.backend.repository.BookRepository;
+import lk.bookrental.backend.search.BookSearchIndex;
 import lk.bookrental.backend.service.BookService;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
+@Timed("bookrental.service")
 public class BookServiceImpl implements BookService {
 
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 500;
+    static final int DEFAULT_SEARCH_LIMIT = 20;
+    static final int MAX_SEARCH_LIMIT = 100;
+
     private final BookRepository bookRepository;
+    private final BookSearchIndex searchIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public BookServiceImpl(BookRepository bookRepository) {
+    public BookServiceImpl(BookRepository bookRepository, BookSearchIndex searchIndex,
+                           ApplicationEventPublisher eventPublisher) {
         this.bookRepository = bookRepository;
+        this.searchIndex = searchIndex;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.BOOK_PAGES, allEntries = true)
     public BookResponse createBook(BookRequest request) {
         Book book = Book.builder()
                 .title(request.getTitle())
@@ -30,10 +59,17 @@ public class BookServiceImpl implements BookService {
                 .availabilityStatus(request.getAvailabilityStatus() != null ? request.getAvailabilityStatus() : AvailabilityStatus.AVAILABLE)
                 .build();
         book = bookRepository.save(book);
-        return toResponse(book);
+        BookResponse response = ResponseMapper.toResponse(book);
+        eventPublisher.publishEvent(new BookChangedEvent(ChangeType.CREATED, book.getId(), response));
+        return response;
     }
 
     @Override
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.BOOKS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.BOOK_PAGES, allEntries = true)
+    })
     public BookResponse updateBook(Long id, BookRequest request) {
         Book book = bookRepository.findById(id).orElseThrow(() -> new EntityNotFoundException("Book not found"));
         book.setTitle(request.getTitle());
@@ -43,37 +79,72 @@ public class BookServiceImpl implements BookService {
             book.setAvailabilityStatus(request.getAvailabilityStatus());
         }
         book = bookRepository.save(book);
-        return toResponse(book);
+        BookResponse response = ResponseMapper.toResponse(book);
+        eventPublisher.publishEvent(new BookChangedEvent(ChangeType.UPDATED, id, response));
+        return response;
     }
 
     @Override
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.BOOKS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.BOOK_PAGES, allEntries = true)
+    })
     public void deleteBook(Long id) {
         if (!bookRepository.existsById(id)) {
             throw new EntityNotFoundException("Book not found");
         }
         bookRepository.deleteById(id);
+        eventPublisher.publishEvent(new BookChangedEvent(ChangeType.DELETED, id, null));
     }
 
     @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.BOOKS, key = "#id")
     public BookResponse getBookById(Long id) {
         Book book = bookRepository.findById(id).orElseThrow(() -> new EntityNotFoundException("Book not found"));
-        return toResponse(book);
+        return ResponseMapper.toResponse(book);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.BOOK_PAGES, key = "'all'")
     public List<BookResponse> getAllBooks() {
-        return bookRepository.findAll().stream().map(this::toResponse).collect(Collectors.toList());
+        return bookRepository.findAll().stream().map(ResponseMapper::toResponse).collect(Collectors.toList());
     }
 
-    private BookResponse toResponse(Book book) {
-        return BookResponse.builder()
-                .id(book.getId())
-                .title(book.getTitle())
-                .author(book.getAuthor())
-                .genre(book.getGenre())
-                .availabilityStatus(book.getAvailabilityStatus())
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.BOOK_PAGES, key = "#request")
+    public CursorPageResponse<BookResponse> getBookPage(BookPageRequest request) {
+        int limit = request.getLimit() != null ? Math.max(1, Math.min(request.getLimit(), MAX_PAGE_SIZE)) : DEFAULT_PAGE_SIZE;
+        long afterId = request.getCursor() != null ? request.getCursor() : 0L;
+
+        // fetch one extra row to know whether another page exists without a count query
+        List<Book> books = bookRepository.findPage(afterId, request.getGenre(), request.getAuthor(),
+                request.getAvailabilityStatus(), Limit.of(limit + 1));
+        boolean hasMore = books.size() > limit;
+        List<BookResponse> items = books.stream().limit(limit).map(ResponseMapper::toResponse).collect(Collectors.toList());
+
+        return CursorPageResponse.<BookResponse>builder()
+                .items(items)
+                .nextCursor(hasMore ? items.get(items.size() - 1).getId() : null)
                 .build();
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BookResponse> searchBooks(String query, Integer limit) {
+        int size = limit != null ? Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT)) : DEFAULT_SEARCH_LIMIT;
+        List<Long> ids = searchIndex.search(query, size);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        // the index only ranks ids; one primary-key lookup loads the current rows, re-ordered by rank
+        Map<Long, Book> books = bookRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        return ids.stream().map(books::get).filter(Objects::nonNull).map(ResponseMapper::toResponse).collect(Collectors.toList());
+    }
 }
 
 
@@ -0,0 +1,57 @@
+package lk.bookrental.backend.service.impl;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lk.bookrental.backend.dto.response.CacheStatsResponse;
+import lk.bookrental.backend.service.CacheStatsService;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class CacheStatsServiceImpl implements CacheStatsService {
+
+    private final CacheManager cacheManager;
+    private final javax.cache.CacheManager hibernateCacheManager;
+
+    public CacheStatsServiceImpl(CacheManager cacheManager, javax.cache.CacheManager hibernateCacheManager) {
+        this.cacheManager = cacheManager;
+        this.hibernateCacheManager = hibernateCacheManager;
+    }
+
+    @Override
+    public List<CacheStatsResponse> getCacheStats() {
+        List<CacheStatsResponse> result = new ArrayList<>();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache instanceof TransactionAwareCacheDecorator decorator) {
+                cache = decorator.getTargetCache();
+            }
+            if (cache instanceof CaffeineCache caffeineCache) {
+                result.add(toResponse(name, caffeineCache.getNativeCache()));
+            }
+        }
+        // second-level cache regions are Caffeine caches behind JCache
+        for (String region : hibernateCacheManager.getCacheNames()) {
+            result.add(toResponse("hibernate." + region, hibernateCacheManager.getCache(region)
+                    .unwrap(com.github.benmanes.caffeine.cache.Cache.class)));
+        }
+        return result;
+    }
+
+    private static CacheStatsResponse toResponse(String name, com.github.benmanes.caffeine.cache.Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        return CacheStatsResponse.builder()
+                .name(name)
+                .size(cache.estimatedSize())
+                .hits(stats.hitCount())
+                .misses(stats.missCount())
+                .evictions(stats.evictionCount())
+                .hitRate(stats.hitRate())
+                .build();
+    }
+}
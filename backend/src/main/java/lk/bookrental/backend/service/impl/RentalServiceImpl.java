@@ -1,87 +1,236 @@
 package lk.bookrental.backend.service.impl;
 
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
 import lk.bookrental.backend.dto.request.RentalRequest;
-import lk.bookrental.backend.dto.response.BookResponse;
 import lk.bookrental.backend.dto.response.RentalResponse;
+import lk.bookrental.backend.event.BookAvailabilityChangedEvent;
+import lk.bookrental.backend.event.ChangeType;
+import lk.bookrental.backend.event.RentalChangedEvent;
 import lk.bookrental.backend.model.AvailabilityStatus;
 import lk.bookrental.backend.model.Book;
 import lk.bookrental.backend.model.Rental;
+import lk.bookrental.backend.repository.ArchivedRentalRepository;
 import lk.bookrental.backend.repository.BookRepository;
 import lk.bookrental.backend.repository.RentalRepository;
+import lk.bookrental.backend.repository.UserCheckoutLockRepository;
 import lk.bookrental.backend.service.RentalService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Timed("bookrental.service")
 public class RentalServiceImpl implements RentalService {
 
+    private static final int DEFAULT_HISTORY_LIMIT = 50;
+    private static final int MAX_HISTORY_LIMIT = 500;
+    private static final int DEFAULT_OVERDUE_LIMIT = 100;
+    private static final int MAX_OVERDUE_LIMIT = 1000;
+    private static final Comparator<RentalResponse> BY_ID = Comparator.comparing(RentalResponse::getId);
+    private static final Comparator<RentalResponse> NEWEST_FIRST =
+            Comparator.comparing(RentalResponse::getRentalDate).thenComparing(RentalResponse::getId).reversed();
+
     private final RentalRepository rentalRepository;
+    private final ArchivedRentalRepository archivedRentalRepository;
     private final BookRepository bookRepository;
+    private final UserCheckoutLockRepository userCheckoutLockRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Counter checkoutConflicts;
+    private final int loanDays;
+    private final int maxActivePerUser;
 
-    public RentalServiceImpl(RentalRepository rentalRepository, BookRepository bookRepository) {
+    public RentalServiceImpl(RentalRepository rentalRepository, ArchivedRentalRepository archivedRentalRepository,
+                             BookRepository bookRepository, UserCheckoutLockRepository userCheckoutLockRepository,
+                             ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry,
+                             @Value("${bookrental.rentals.loan-days:14}") int loanDays,
+                             @Value("${bookrental.rentals.max-active-per-user:0}") int maxActivePerUser) {
         this.rentalRepository = rentalRepository;
+        this.archivedRentalRepository = archivedRentalRepository;
         this.bookRepository = bookRepository;
+        this.userCheckoutLockRepository = userCheckoutLockRepository;
+        this.eventPublisher = eventPublisher;
+        this.checkoutConflicts = checkoutConflicts(meterRegistry, "single");
+        this.loanDays = loanDays;
+        this.maxActivePerUser = maxActivePerUser;
+    }
+
+    // checkouts refused because the book was already out, including those that lost the version check
+    static Counter checkoutConflicts(MeterRegistry meterRegistry, String path) {
+        return Counter.builder("bookrental.rentals.checkout.conflicts")
+                .description("Checkouts rejected because the book was already rented")
+                .tag("path", path)
+                .register(meterRegistry);
+    }
+
+    // shared with the batch path so both default and validate due dates the same way
+    static LocalDate dueDate(LocalDate rentalDate, LocalDate requested, int loanDays) {
+        if (rentalDate == null) {
+            throw new IllegalArgumentException("rentalDate is required");
+        }
+        if (requested == null) {
+            return rentalDate.plusDays(loanDays);
+        }
+        if (requested.isBefore(rentalDate)) {
+            throw new IllegalArgumentException("dueDate cannot be before rentalDate");
+        }
+        return requested;
     }
 
     @Override
+    @Transactional
     public RentalResponse createRental(RentalRequest request) {
+        LocalDate dueDate = dueDate(request.getRentalDate(), request.getDueDate(), loanDays);
+        // the user's lock row serializes their checkouts; taken before any read, so on MySQL the transaction's
+        // snapshot starts after it and the count sees every checkout that committed first
+        if (maxActivePerUser > 0) {
+            userCheckoutLockRepository.lock(request.getUsername());
+            if (rentalRepository.countByUsernameAndReturnDateIsNull(request.getUsername()) >= maxActivePerUser) {
+                throw new IllegalStateException("User already has " + maxActivePerUser + " active rentals");
+            }
+        }
+        // mark book as unavailable when rented; the book may come from the second-level cache, so the flush is
+        // the real availability check: its update only matches the version we read, so two concurrent
+        // checkouts of the same book cannot both succeed
         Book book = bookRepository.findById(request.getBookId())
                 .orElseThrow(() -> new EntityNotFoundException("Book not found"));
-
-        if (book.getAvailabilityStatus() == AvailabilityStatus.UNAVAILABLE) {
+        if (book.getAvailabilityStatus() != AvailabilityStatus.AVAILABLE) {
+            checkoutConflicts.increment();
             throw new IllegalStateException("Book is not available for rental");
         }
+        book.setAvailabilityStatus(AvailabilityStatus.UNAVAILABLE);
+        try {
+            bookRepository.saveAndFlush(book);
+        } catch (OptimisticLockingFailureException e) {
+            checkoutConflicts.increment();
+            throw new IllegalStateException("Book is not available for rental");
+        }
+        eventPublisher.publishEvent(new BookAvailabilityChangedEvent(book.getId()));
 
         Rental rental = Rental.builder()
                 .username(request.getUsername())
                 .rentalDate(request.getRentalDate())
                 .returnDate(request.getReturnDate())
+                .dueDate(dueDate)
                 .book(book)
                 .build();
 
-        // mark book as unavailable when rented
-        book.setAvailabilityStatus(AvailabilityStatus.UNAVAILABLE);
-        bookRepository.save(book);
-
         rental = rentalRepository.save(rental);
-        return toResponse(rental);
+        RentalResponse response = ResponseMapper.toResponse(rental);
+        eventPublisher.publishEvent(new RentalChangedEvent(ChangeType.CREATED, rental.getId(), response));
+        return response;
     }
 
     @Override
+    @Transactional
     public RentalResponse updateRental(Long id, RentalRequest request) {
         Rental rental = rentalRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Rental not found"));
 
         if (request.getUsername() != null) rental.setUsername(request.getUsername());
         if (request.getRentalDate() != null) rental.setRentalDate(request.getRentalDate());
+        if (request.getDueDate() != null) {
+            rental.setDueDate(dueDate(rental.getRentalDate(), request.getDueDate(), loanDays));
+            // an extended loan is no longer overdue; the scan flags it again if the new date passes
+            if (!rental.getDueDate().isBefore(LocalDate.now())) {
+                rental.setOverdueSince(null);
+            }
+        }
         if (request.getReturnDate() != null) {
+            // when return date is set, mark book as available again; only on the first return, since the
+            // book may already be out on a newer rental by the time an old one is edited
+            if (rental.getReturnDate() == null) {
+                Book book = rental.getBook();
+                book.setAvailabilityStatus(AvailabilityStatus.AVAILABLE);
+                bookRepository.save(book);
+                eventPublisher.publishEvent(new BookAvailabilityChangedEvent(book.getId()));
+            }
             rental.setReturnDate(request.getReturnDate());
-            // when return date is set, mark book as available again
-            Book book = rental.getBook();
-            book.setAvailabilityStatus(AvailabilityStatus.AVAILABLE);
-            bookRepository.save(book);
         }
 
         rental = rentalRepository.save(rental);
-        return toResponse(rental);
+        RentalResponse response = ResponseMapper.toResponse(rental);
+        eventPublisher.publishEvent(new RentalChangedEvent(ChangeType.UPDATED, id, response));
+        return response;
     }
 
     @Override
-    public RentalResponse getRentalById(Long id) {
-        Rental rental = rentalRepository.findById(id)
+    @Transactional(readOnly = true)
+    public RentalResponse getRentalById(Long id, boolean history) {
+        return rentalRepository.findResponseById(id)
+                .or(() -> history ? archivedRentalRepository.findResponseById(id) : Optional.empty())
                 .orElseThrow(() -> new EntityNotFoundException("Rental not found"));
-        return toResponse(rental);
     }
 
     @Override
-    public List<RentalResponse> getAllRentals() {
-        return rentalRepository.findAll().stream().map(this::toResponse).collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<RentalResponse> getAllRentals(boolean history) {
+        List<RentalResponse> live = rentalRepository.findAllResponses();
+        return history ? merge(live, archivedRentalRepository.findAllResponses(), BY_ID, Integer.MAX_VALUE) : live;
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<RentalResponse> getUserRentals(String username, boolean activeOnly, LocalDate beforeDate, Long beforeId,
+                                               Integer limit, boolean history) {
+        if (username == null || username.isBlank()) {
+            throw new IllegalArgumentException("username is required");
+        }
+        int size = limit != null ? Math.max(1, Math.min(limit, MAX_HISTORY_LIMIT)) : DEFAULT_HISTORY_LIMIT;
+        long before = beforeId != null ? beforeId : Long.MAX_VALUE;
+        List<RentalResponse> live = rentalRepository.findUserHistory(username, activeOnly, beforeDate, before, Limit.of(size));
+        // archived rentals are all returned, so an active-only page never needs the archive
+        if (!history || activeOnly) {
+            return live;
+        }
+        // the same keyset page from both tables; together they hold the page of the union
+        return merge(live, archivedRentalRepository.findUserHistory(username, beforeDate, before, Limit.of(size)),
+                NEWEST_FIRST, size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long countActiveRentals(String username) {
+        return rentalRepository.countByUsernameAndReturnDateIsNull(username);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<RentalResponse> getOverdueRentals(LocalDate afterDue, Long afterId, Integer limit) {
+        int size = limit != null ? Math.max(1, Math.min(limit, MAX_OVERDUE_LIMIT)) : DEFAULT_OVERDUE_LIMIT;
+        return rentalRepository.findOverdueResponses(LocalDate.now(), afterDue, afterId != null ? afterId : 0L,
+                Limit.of(size));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportRentals(boolean history, Consumer<RentalResponse> sink) {
+        // archived rentals first: nearly all of them are older than anything still live
+        if (history) {
+            try (Stream<RentalResponse> rentals = archivedRentalRepository.streamAllResponses()) {
+                rentals.forEach(sink);
+            }
+        }
+        try (Stream<RentalResponse> rentals = rentalRepository.streamAllResponses()) {
+            rentals.forEach(sink);
+        }
+    }
+
+    @Override
+    @Transactional
     public void deleteRental(Long id) {
         Rental rental = rentalRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Rental not found"));
@@ -90,27 +239,30 @@ public class RentalServiceImpl implements RentalService {
             Book book = rental.getBook();
             book.setAvailabilityStatus(AvailabilityStatus.AVAILABLE);
             bookRepository.save(book);
+            eventPublisher.publishEvent(new BookAvailabilityChangedEvent(book.getId()));
         }
+        RentalResponse last = ResponseMapper.toResponse(rental);
         rentalRepository.deleteById(id);
+        eventPublisher.publishEvent(new RentalChangedEvent(ChangeType.DELETED, id, last));
     }
 
-    private RentalResponse toResponse(Rental rental) {
-        Book book = rental.getBook();
-        BookResponse bookResponse = BookResponse.builder()
-                .id(book.getId())
-                .title(book.getTitle())
-                .author(book.getAuthor())
-                .genre(book.getGenre())
-                .availabilityStatus(book.getAvailabilityStatus())
-                .build();
-
-        return RentalResponse.builder()
-                .id(rental.getId())
-                .username(rental.getUsername())
-                .rentalDate(rental.getRentalDate())
-                .returnDate(rental.getReturnDate())
-                .book(bookResponse)
-                .build();
+    // both lists are sorted by order
+    private static List<RentalResponse> merge(List<RentalResponse> live, List<RentalResponse> archived,
+                                              Comparator<RentalResponse> order, int limit) {
+        if (archived.isEmpty()) {
+            return live;
+        }
+        List<RentalResponse> merged = new ArrayList<>(Math.min(live.size() + archived.size(), limit));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < live.size() || j < archived.size())) {
+            if (j == archived.size() || (i < live.size() && order.compare(live.get(i), archived.get(j)) <= 0)) {
+                merged.add(live.get(i++));
+            } else {
+                merged.add(archived.get(j++));
+            }
+        }
+        return merged;
     }
 }
 
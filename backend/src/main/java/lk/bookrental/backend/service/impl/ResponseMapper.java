@@ -0,0 +1,35 @@
+package lk.bookrental.backend.service.impl;
+
+import lk.bookrental.backend.dto.response.BookResponse;
+import lk.bookrental.backend.dto.response.RentalResponse;
+import lk.bookrental.backend.model.Book;
+import lk.bookrental.backend.model.Rental;
+
+// entity -> response mapping shared by the services; the JMH benchmarks measure it on its own
+final class ResponseMapper {
+
+    private ResponseMapper() {
+    }
+
+    static BookResponse toResponse(Book book) {
+        return BookResponse.builder()
+                .id(book.getId())
+                .title(book.getTitle())
+                .author(book.getAuthor())
+                .genre(book.getGenre())
+                .availabilityStatus(book.getAvailabilityStatus())
+                .build();
+    }
+
+    static RentalResponse toResponse(Rental rental) {
+        return RentalResponse.builder()
+                .id(rental.getId())
+                .username(rental.getUsername())
+                .rentalDate(rental.getRentalDate())
+                .returnDate(rental.getReturnDate())
+                .dueDate(rental.getDueDate())
+                .overdueSince(rental.getOverdueSince())
+                .book(toResponse(rental.getBook()))
+                .build();
+    }
+}
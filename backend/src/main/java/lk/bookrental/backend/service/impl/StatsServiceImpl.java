@@ -0,0 +1,72 @@
+package lk.bookrental.backend.service.impl;
+
+import io.micrometer.core.annotation.Timed;
+import lk.bookrental.backend.config.CacheConfig;
+import lk.bookrental.backend.dto.response.StatsResponse;
+import lk.bookrental.backend.model.AvailabilityStatus;
+import lk.bookrental.backend.repository.ArchivedRentalRepository;
+import lk.bookrental.backend.repository.BookRepository;
+import lk.bookrental.backend.repository.KeyCount;
+import lk.bookrental.backend.repository.RentalRepository;
+import lk.bookrental.backend.service.StatsService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@Timed("bookrental.service")
+public class StatsServiceImpl implements StatsService {
+
+    private final BookRepository bookRepository;
+    private final RentalRepository rentalRepository;
+    private final ArchivedRentalRepository archivedRentalRepository;
+    private final int groupLimit;
+
+    public StatsServiceImpl(BookRepository bookRepository, RentalRepository rentalRepository,
+                            ArchivedRentalRepository archivedRentalRepository,
+                            @Value("${bookrental.stats.group-limit:50}") int groupLimit) {
+        this.bookRepository = bookRepository;
+        this.rentalRepository = rentalRepository;
+        this.archivedRentalRepository = archivedRentalRepository;
+        this.groupLimit = groupLimit;
+    }
+
+    // a handful of COUNT / GROUP BY queries in one read-only transaction; the snapshot is cached for
+    // bookrental.cache.stats.ttl so dashboard refreshes rarely reach the database at all. Rental counts are
+    // all-time, so they include the archive, where every rental is returned
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.STATS, key = "'snapshot'", condition = "!#fresh")
+    public StatsResponse getStats(boolean fresh) {
+        long available = bookRepository.countByAvailabilityStatus(AvailabilityStatus.AVAILABLE);
+        long unavailable = bookRepository.countByAvailabilityStatus(AvailabilityStatus.UNAVAILABLE);
+        long totalRentals = rentalRepository.count() + archivedRentalRepository.count();
+        long activeRentals = rentalRepository.countByReturnDateIsNull();
+
+        return StatsResponse.builder()
+                .totalBooks(available + unavailable)
+                .availableBooks(available)
+                .unavailableBooks(unavailable)
+                .totalRentals(totalRentals)
+                .activeRentals(activeRentals)
+                .returnedRentals(totalRentals - activeRentals)
+                .booksByGenre(toMap(bookRepository.countByGenre(Limit.of(groupLimit))))
+                .rentalsByGenre(toMap(rentalRepository.countByGenre(Limit.of(groupLimit))))
+                .rentalsByUser(toMap(rentalRepository.countByUsername(Limit.of(groupLimit))))
+                .generatedAt(Instant.now())
+                .build();
+    }
+
+    private static Map<String, Long> toMap(List<KeyCount> counts) {
+        Map<String, Long> map = new LinkedHashMap<>();
+        counts.forEach(c -> map.put(c.getKey(), c.getCount()));
+        return map;
+    }
+}
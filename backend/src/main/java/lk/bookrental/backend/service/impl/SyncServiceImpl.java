@@ -0,0 +1,101 @@
+package lk.bookrental.backend.service.impl;
+
+import io.micrometer.core.annotation.Timed;
+import lk.bookrental.backend.db.ReadRouting;
+import lk.bookrental.backend.dto.response.BookResponse;
+import lk.bookrental.backend.dto.response.DeltaResponse;
+import lk.bookrental.backend.dto.response.RentalResponse;
+import lk.bookrental.backend.model.Book;
+import lk.bookrental.backend.model.Rental;
+import lk.bookrental.backend.model.TombstoneType;
+import lk.bookrental.backend.repository.BookRepository;
+import lk.bookrental.backend.repository.RentalRepository;
+import lk.bookrental.backend.repository.TombstoneRepository;
+import lk.bookrental.backend.service.SyncService;
+import lk.bookrental.backend.sync.ChangeVersions;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+@Service
+@Timed("bookrental.service")
+public class SyncServiceImpl implements SyncService {
+
+    static final int DEFAULT_LIMIT = 500;
+    static final int MAX_LIMIT = 5000;
+
+    private final BookRepository bookRepository;
+    private final RentalRepository rentalRepository;
+    private final TombstoneRepository tombstoneRepository;
+    private final ChangeVersions changeVersions;
+
+    public SyncServiceImpl(BookRepository bookRepository, RentalRepository rentalRepository,
+                           TombstoneRepository tombstoneRepository, ChangeVersions changeVersions) {
+        this.bookRepository = bookRepository;
+        this.rentalRepository = rentalRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.changeVersions = changeVersions;
+    }
+
+    // on the primary: a lagging replica may lack versions below upTo, and the client would skip them for good
+    @Override
+    @Transactional(readOnly = true, label = ReadRouting.PRIMARY)
+    public DeltaResponse<BookResponse> getBookChanges(long since, Long after, Integer limit) {
+        long upTo = upTo(since);
+        int size = size(limit);
+        List<Book> rows = bookRepository.findChanges(since, afterId(since, after), upTo, Limit.of(size + 1));
+        return delta(rows, size, since, upTo, TombstoneType.BOOK, Book::getChangeVersion, Book::getId, ResponseMapper::toResponse);
+    }
+
+    @Override
+    @Transactional(readOnly = true, label = ReadRouting.PRIMARY)
+    public DeltaResponse<RentalResponse> getRentalChanges(long since, Long after, Integer limit) {
+        long upTo = upTo(since);
+        int size = size(limit);
+        List<Rental> rows = rentalRepository.findChanges(since, afterId(since, after), upTo, Limit.of(size + 1));
+        return delta(rows, size, since, upTo, TombstoneType.RENTAL, Rental::getChangeVersion, Rental::getId, ResponseMapper::toResponse);
+    }
+
+    // only versions no open transaction can still write below are served, so a client never skips a late commit
+    private long upTo(long since) {
+        if (since < 0) {
+            throw new IllegalArgumentException("since must not be negative");
+        }
+        return Math.max(since, changeVersions.safeHighWaterMark());
+    }
+
+    // without a continuation id, every row at exactly `since` was already delivered; since=0 is a first sync,
+    // which also has to return rows written before change versions existed (they carry version 0)
+    private static long afterId(long since, Long after) {
+        if (after != null) {
+            return after;
+        }
+        return since == 0 ? 0L : Long.MAX_VALUE;
+    }
+
+    private static int size(Integer limit) {
+        return limit != null ? Math.max(1, Math.min(limit, MAX_LIMIT)) : DEFAULT_LIMIT;
+    }
+
+    private <E, R> DeltaResponse<R> delta(List<E> rows, int size, long since, long upTo, TombstoneType type,
+                                          ToLongFunction<E> version, Function<E, Long> id, Function<E, R> mapper) {
+        boolean hasMore = rows.size() > size;
+        List<E> page = hasMore ? rows.subList(0, size) : rows;
+        E last = hasMore ? page.get(page.size() - 1) : null;
+        // a partial page covers its last version only up to the last id, so deletes are reported up to
+        // that version here and from just after it on the next call
+        long pageVersion = last != null ? version.applyAsLong(last) : upTo;
+        return DeltaResponse.<R>builder()
+                .items(page.stream().map(mapper).collect(Collectors.toList()))
+                .deletedIds(pageVersion > since ? tombstoneRepository.findDeletedIds(type, since, pageVersion) : List.of())
+                .nextSince(pageVersion)
+                .nextAfter(last != null ? id.apply(last) : null)
+                .hasMore(hasMore)
+                .build();
+    }
+}
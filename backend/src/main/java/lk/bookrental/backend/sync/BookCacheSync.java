@@ -0,0 +1,143 @@
+package lk.bookrental.backend.sync;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import lk.bookrental.backend.config.CacheConfig;
+import lk.bookrental.backend.config.SecondLevelCacheConfig;
+import lk.bookrental.backend.db.ReadRouting;
+import lk.bookrental.backend.model.Book;
+import lk.bookrental.backend.model.TombstoneType;
+import lk.bookrental.backend.repository.BookRepository;
+import lk.bookrental.backend.repository.TombstoneRepository;
+import lk.bookrental.backend.search.BookSearchIndex;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps this instance's book caches in step with writes made by other instances.
+ * <p>
+ * The invalidation channel is the database itself: every book write stamps {@code change_version} and every
+ * delete leaves a tombstone, so each instance polls both for rows changed since its last poll and drops those
+ * books from the second-level cache, the Spring caches and the catalog query region, re-indexes them for
+ * search and advances the book ETag generation. Versions come from several clocks and commit out of order,
+ * so each poll looks back over a window; rows already handled at the same version are skipped, so a change
+ * is acted on once. The window must cover the longest write transaction plus the clock skew between hosts.
+ * <p>
+ * Our own writes come back through the poll as well; evicting them a second time is harmless.
+ */
+@Component
+public class BookCacheSync {
+
+    private final BookRepository bookRepository;
+    private final TombstoneRepository tombstoneRepository;
+    private final ChangeVersions changeVersions;
+    private final EntityManagerFactory entityManagerFactory;
+    private final CacheManager cacheManager;
+    private final BookSearchIndex searchIndex;
+    private final ReadRouting readRouting;
+    private final Counter invalidations;
+    private final long windowMicros;
+    private final ChangedIdWindow changes;
+    private final ChangedIdWindow deletes;
+    private final ReentrantLock lock = new ReentrantLock();
+    private long watermark = -1;
+
+    public BookCacheSync(BookRepository bookRepository, TombstoneRepository tombstoneRepository,
+                         ChangeVersions changeVersions, EntityManagerFactory entityManagerFactory,
+                         CacheManager cacheManager, BookSearchIndex searchIndex, ReadRouting readRouting,
+                         MeterRegistry meterRegistry,
+                         @Value("${bookrental.cache.sync.window:10s}") Duration window,
+                         @Value("${bookrental.cache.sync.page-size:1000}") int pageSize) {
+        this.bookRepository = bookRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.changeVersions = changeVersions;
+        this.entityManagerFactory = entityManagerFactory;
+        this.cacheManager = cacheManager;
+        this.searchIndex = searchIndex;
+        this.readRouting = readRouting;
+        this.invalidations = Counter.builder("bookrental.cache.sync.invalidations")
+                .description("Books dropped from the local caches because the database changed")
+                .register(meterRegistry);
+        this.windowMicros = window.toNanos() / 1000;
+        this.changes = new ChangedIdWindow(bookRepository::findChangedIds, pageSize);
+        this.deletes = new ChangedIdWindow(
+                (since, afterId, limit) -> tombstoneRepository.findChangedIds(TombstoneType.BOOK, since, afterId, limit), pageSize);
+    }
+
+    @Scheduled(initialDelayString = "${bookrental.cache.sync.interval:1s}",
+            fixedDelayString = "${bookrental.cache.sync.interval:1s}")
+    public void scheduledPoll() {
+        poll();
+    }
+
+    /**
+     * Invalidates every book changed or deleted since the previous poll and returns how many there were.
+     * The first poll only records where to start from, since nothing has been cached before it. Reads go to
+     * the primary, since a lagging replica would hide changes or hand back old rows to re-index.
+     */
+    public int poll() {
+        return readRouting.onPrimary(this::pollPrimary);
+    }
+
+    private int pollPrimary() {
+        lock.lock();
+        try {
+            if (watermark < 0) {
+                watermark = changeVersions.safeHighWaterMark();
+                return 0;
+            }
+            long since = Math.max(0, watermark - windowMicros);
+            Set<Long> changed = changes.unseen(since);
+            Set<Long> deleted = deletes.unseen(since);
+            watermark = Math.max(watermark, Math.max(changes.maxVersion(), deletes.maxVersion()));
+            changed.removeAll(deleted);
+            if (changed.isEmpty() && deleted.isEmpty()) {
+                return 0;
+            }
+            invalidate(changed, deleted);
+            return changed.size() + deleted.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void invalidate(Set<Long> changed, Set<Long> deleted) {
+        jakarta.persistence.Cache secondLevel = entityManagerFactory.getCache();
+        Cache books = cacheManager.getCache(CacheConfig.BOOKS);
+        for (Set<Long> ids : List.of(changed, deleted)) {
+            for (Long id : ids) {
+                secondLevel.evict(Book.class, id);
+                if (books != null) {
+                    books.evict(id);
+                }
+            }
+        }
+        // query results are cached per table, so any change invalidates all of them, as a local write would
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegion(SecondLevelCacheConfig.CATALOG_QUERY_REGION);
+        for (String name : List.of(CacheConfig.BOOK_PAGES, CacheConfig.STATS)) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+
+        deleted.forEach(searchIndex::remove);
+        if (!changed.isEmpty()) {
+            for (Book book : bookRepository.findAllById(changed)) {
+                searchIndex.index(book.getId(), book.getTitle(), book.getAuthor(), book.getGenre());
+            }
+        }
+        changeVersions.advance(Book.class);
+        invalidations.increment(changed.size() + deleted.size());
+    }
+}
@@ -0,0 +1,23 @@
+package lk.bookrental.backend.sync;
+
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import lk.bookrental.backend.model.Versioned;
+import org.springframework.stereotype.Component;
+
+// stamps every JPA insert and update; Hibernate obtains this listener from Spring, so it can be injected
+@Component
+public class ChangeVersionListener {
+
+    private final ChangeVersions changeVersions;
+
+    public ChangeVersionListener(ChangeVersions changeVersions) {
+        this.changeVersions = changeVersions;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void stamp(Versioned entity) {
+        entity.setChangeVersion(changeVersions.current(entity.getClass()));
+    }
+}
@@ -0,0 +1,190 @@
+package lk.bookrental.backend.sync;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out change versions and tracks which of them may still be uncommitted.
+ * <p>
+ * A version is a hybrid clock value: wall-clock microseconds, bumped past the previous version if the clock
+ * stalls or steps back, and seeded from the database on first use so it keeps increasing across restarts.
+ * Every row written in one transaction gets that transaction's version. Transactions commit in no
+ * particular order, so a reader may only trust versions up to {@link #safeHighWaterMark()}: everything at
+ * or below it has committed, while anything above it might still appear later. Other instances' open
+ * transactions are invisible here, so the mark also stays {@code bookrental.sync.writer-lag} behind the clock;
+ * that lag must cover the longest write transaction plus the clock skew between hosts, like the cache sync window.
+ * <p>
+ * Each entity type also has a generation that goes up after every commit touching it. Generations are
+ * what ETags are made of, so a conditional GET can be answered without a query. Generations are tracked per
+ * JVM; {@link BookCacheSync} and {@link RentalChangeSync} advance the book and rental generations for rows
+ * changed by other instances.
+ */
+@Component
+public class ChangeVersions {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final JdbcTemplate jdbcTemplate;
+    // a lock rather than synchronized: the first caller seeds from the database while holding it, and a
+    // virtual thread blocking inside a monitor would pin its carrier thread
+    private final ReentrantLock lock = new ReentrantLock();
+    private final TreeSet<Long> inFlight = new TreeSet<>();
+    private final Map<Class<?>, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Long> changedAt = new ConcurrentHashMap<>();
+    private final long writerLagMicros;
+    private long last = -1;
+
+    public ChangeVersions(DataSource dataSource,
+                          @Value("${bookrental.sync.writer-lag:${bookrental.cache.sync.window:10s}}") Duration writerLag) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.writerLagMicros = writerLag.toNanos() / 1000;
+    }
+
+    /**
+     * The version of the current transaction, allocated on first use and released once it completes.
+     * The entity type is the table being written; its generation goes up if the transaction commits.
+     */
+    public long current(Class<?> entityType) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            long version = allocate();
+            release(version);
+            changed(entityType);
+            return version;
+        }
+        Write write = (Write) TransactionSynchronizationManager.getResource(this);
+        if (write == null) {
+            write = new Write(allocate());
+            TransactionSynchronizationManager.bindResource(this, write);
+            Write bound = write;
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ChangeVersions.this);
+                    release(bound.version);
+                    if (status == STATUS_COMMITTED) {
+                        bound.entityTypes.forEach(ChangeVersions.this::changed);
+                    }
+                }
+            });
+        }
+        write.entityTypes.add(entityType);
+        return write.version;
+    }
+
+    /**
+     * The highest version below which no transaction is still open, here or, given the writer lag, elsewhere.
+     */
+    public long safeHighWaterMark() {
+        lock.lock();
+        try {
+            seedIfNeeded();
+            long local = inFlight.isEmpty() ? last : inFlight.first() - 1;
+            return Math.min(local, nowMicros() - writerLagMicros);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * An entity tag that changes whenever a commit touches any of the given entity types.
+     */
+    public String etag(Class<?>... entityTypes) {
+        StringBuilder tag = new StringBuilder(epoch);
+        for (Class<?> entityType : entityTypes) {
+            tag.append('-').append(generation(entityType).get());
+        }
+        return tag.toString();
+    }
+
+    /**
+     * Advances the generation of an entity type for a change committed outside this instance.
+     */
+    public void advance(Class<?> entityType) {
+        changed(entityType);
+    }
+
+    /**
+     * Whether a commit touching any of the given entity types was seen within the window.
+     */
+    public boolean changedWithin(Duration window, Class<?>... entityTypes) {
+        long now = System.nanoTime();
+        for (Class<?> entityType : entityTypes) {
+            Long at = changedAt.get(entityType);
+            if (at != null && now - at < window.toNanos()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void changed(Class<?> entityType) {
+        generation(entityType).incrementAndGet();
+        changedAt.put(entityType, System.nanoTime());
+    }
+
+    private AtomicLong generation(Class<?> entityType) {
+        return generations.computeIfAbsent(entityType, type -> new AtomicLong());
+    }
+
+    private long allocate() {
+        lock.lock();
+        try {
+            seedIfNeeded();
+            last = Math.max(last + 1, nowMicros());
+            inFlight.add(last);
+            return last;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static long nowMicros() {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, Instant.now());
+    }
+
+    private void release(long version) {
+        lock.lock();
+        try {
+            inFlight.remove(version);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // lazy, because the tables only exist once schema generation has run
+    private void seedIfNeeded() {
+        if (last < 0) {
+            Long max = jdbcTemplate.queryForObject("""
+                    select greatest(
+                        (select coalesce(max(change_version), 0) from books),
+                        (select coalesce(max(change_version), 0) from rentals),
+                        (select coalesce(max(change_version), 0) from rentals_archive),
+                        (select coalesce(max(change_version), 0) from tombstones))
+                    """, Long.class);
+            last = max != null ? max : 0;
+        }
+    }
+
+    private static final class Write {
+        private final long version;
+        private final Set<Class<?>> entityTypes = new HashSet<>();
+
+        private Write(long version) {
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package lk.bookrental.backend.sync;
+
+import lk.bookrental.backend.repository.ChangedId;
+import org.springframework.data.domain.Limit;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * One table's side of a sync poll: walks (change_version, id) pages from a look-back point and keeps the rows
+ * not already handled at that version, so a row seen again inside the window is acted on once. Not thread-safe;
+ * the pollers call it under their own lock.
+ */
+final class ChangedIdWindow {
+
+    private final ChangedIdPager pager;
+    private final int pageSize;
+    private final Map<Long, Long> seen = new HashMap<>();
+    private long maxVersion = -1;
+
+    ChangedIdWindow(ChangedIdPager pager, int pageSize) {
+        this.pager = pager;
+        this.pageSize = pageSize;
+    }
+
+    Set<Long> unseen(long since) {
+        seen.values().removeIf(version -> version < since);
+        Set<Long> ids = new LinkedHashSet<>();
+        long afterVersion = since;
+        long afterId = 0;
+        List<ChangedId> page;
+        do {
+            page = pager.page(afterVersion, afterId, Limit.of(pageSize));
+            for (ChangedId row : page) {
+                if (!Objects.equals(seen.put(row.getId(), row.getChangeVersion()), row.getChangeVersion())) {
+                    ids.add(row.getId());
+                }
+                maxVersion = Math.max(maxVersion, row.getChangeVersion());
+            }
+            if (!page.isEmpty()) {
+                afterVersion = page.get(page.size() - 1).getChangeVersion();
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == pageSize);
+        return ids;
+    }
+
+    // the highest version any poll has seen, or -1
+    long maxVersion() {
+        return maxVersion;
+    }
+
+    @FunctionalInterface
+    interface ChangedIdPager {
+        List<ChangedId> page(long since, long afterId, Limit limit);
+    }
+}
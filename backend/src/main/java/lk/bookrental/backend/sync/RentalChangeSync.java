@@ -0,0 +1,91 @@
+package lk.bookrental.backend.sync;
+
+import lk.bookrental.backend.config.CacheConfig;
+import lk.bookrental.backend.db.ReadRouting;
+import lk.bookrental.backend.model.Rental;
+import lk.bookrental.backend.model.TombstoneType;
+import lk.bookrental.backend.repository.ArchivedRentalRepository;
+import lk.bookrental.backend.repository.RentalRepository;
+import lk.bookrental.backend.repository.TombstoneRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Moves this instance's rental ETags when another instance writes rentals. Nothing about rentals is cached
+ * here, so unlike {@link BookCacheSync} there is nothing to evict: the poll over rentals, rental tombstones and
+ * archive moves only has to notice that something changed, and advance the rental generation once.
+ */
+@Component
+public class RentalChangeSync {
+
+    private final ChangeVersions changeVersions;
+    private final CacheManager cacheManager;
+    private final ReadRouting readRouting;
+    private final long windowMicros;
+    private final List<ChangedIdWindow> tables;
+    private final ReentrantLock lock = new ReentrantLock();
+    private long watermark = -1;
+
+    public RentalChangeSync(RentalRepository rentalRepository, ArchivedRentalRepository archivedRentalRepository,
+                            TombstoneRepository tombstoneRepository, ChangeVersions changeVersions,
+                            CacheManager cacheManager, ReadRouting readRouting,
+                            @Value("${bookrental.cache.sync.window:10s}") Duration window,
+                            @Value("${bookrental.cache.sync.page-size:1000}") int pageSize) {
+        this.changeVersions = changeVersions;
+        this.cacheManager = cacheManager;
+        this.readRouting = readRouting;
+        this.windowMicros = window.toNanos() / 1000;
+        this.tables = List.of(
+                new ChangedIdWindow(rentalRepository::findChangedIds, pageSize),
+                new ChangedIdWindow(archivedRentalRepository::findChangedIds, pageSize),
+                new ChangedIdWindow((since, afterId, limit) ->
+                        tombstoneRepository.findChangedIds(TombstoneType.RENTAL, since, afterId, limit), pageSize));
+    }
+
+    @Scheduled(initialDelayString = "${bookrental.cache.sync.interval:1s}",
+            fixedDelayString = "${bookrental.cache.sync.interval:1s}")
+    public void scheduledPoll() {
+        poll();
+    }
+
+    /**
+     * Advances the rental generation if any rental changed, was deleted or was archived since the previous poll,
+     * and returns how many such rows there were. Our own writes come back too; they only move the tag once more.
+     */
+    public int poll() {
+        return readRouting.onPrimary(this::pollPrimary);
+    }
+
+    private int pollPrimary() {
+        lock.lock();
+        try {
+            if (watermark < 0) {
+                watermark = changeVersions.safeHighWaterMark();
+                return 0;
+            }
+            long since = Math.max(0, watermark - windowMicros);
+            int changed = 0;
+            for (ChangedIdWindow table : tables) {
+                changed += table.unseen(since).size();
+                watermark = Math.max(watermark, table.maxVersion());
+            }
+            if (changed > 0) {
+                changeVersions.advance(Rental.class);
+                Cache stats = cacheManager.getCache(CacheConfig.STATS);
+                if (stats != null) {
+                    stats.clear();
+                }
+            }
+            return changed;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package lk.bookrental.backend.sync;
+
+import lk.bookrental.backend.event.BookChangedEvent;
+import lk.bookrental.backend.event.ChangeType;
+import lk.bookrental.backend.event.RentalChangedEvent;
+import lk.bookrental.backend.model.Book;
+import lk.bookrental.backend.model.Rental;
+import lk.bookrental.backend.model.Tombstone;
+import lk.bookrental.backend.model.TombstoneType;
+import lk.bookrental.backend.repository.TombstoneRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+// writes the tombstone inside the deleting transaction, so a delete and its tombstone commit or roll back together
+@Component
+public class TombstoneRecorder {
+
+    private final TombstoneRepository tombstoneRepository;
+    private final ChangeVersions changeVersions;
+
+    public TombstoneRecorder(TombstoneRepository tombstoneRepository, ChangeVersions changeVersions) {
+        this.tombstoneRepository = tombstoneRepository;
+        this.changeVersions = changeVersions;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.type() == ChangeType.DELETED) {
+            record(TombstoneType.BOOK, Book.class, event.bookId());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onRentalChanged(RentalChangedEvent event) {
+        if (event.type() == ChangeType.DELETED) {
+            record(TombstoneType.RENTAL, Rental.class, event.rentalId());
+        }
+    }
+
+    private void record(TombstoneType type, Class<?> entityType, Long id) {
+        tombstoneRepository.save(Tombstone.builder()
+                .entityType(type)
+                .entityId(id)
+                .changeVersion(changeVersions.current(entityType))
+                .build());
+    }
+}
@@ -0,0 +1,16 @@
+-- V2 only widens MySQL column types, so H2 goes from V1 to V3
+create table rentals_archive (
+    id             bigint       not null,
+    username       varchar(255) not null,
+    rental_date    date         not null,
+    return_date    date         not null,
+    due_date       date,
+    overdue_since  date,
+    book_id        bigint       not null,
+    change_version bigint       not null,
+    archived_at    timestamp(6) with time zone not null,
+    primary key (id),
+    constraint fk_rentals_archive_book foreign key (book_id) references books (id)
+);
+
+create index idx_rentals_archive_username_date on rentals_archive (username, rental_date, id);
@@ -0,0 +1,2 @@
+-- RentalChangeSync polls the archive by (change_version, id) to notice rentals moved out of the live table
+create index idx_rentals_archive_change_version_id on rentals_archive (change_version, id);
@@ -0,0 +1,81 @@
+-- schema as of the switch from ddl-auto=update to migrations; databases created by ddl-auto are baselined
+-- at this version and skip it
+
+create table books (
+    id                  bigint       not null,
+    title               varchar(255) not null,
+    author              varchar(255) not null,
+    genre               varchar(255) not null,
+    availability_status enum ('AVAILABLE','UNAVAILABLE') not null,
+    change_version      bigint       not null,
+    version             bigint       not null,
+    primary key (id)
+) engine = InnoDB;
+
+create index idx_books_genre_id on books (genre, id);
+create index idx_books_author_id on books (author, id);
+create index idx_books_status_id on books (availability_status, id);
+create index idx_books_change_version_id on books (change_version, id);
+
+create table rentals (
+    id             bigint       not null,
+    username       varchar(255) not null,
+    rental_date    date         not null,
+    return_date    date,
+    due_date       date,
+    overdue_since  date,
+    book_id        bigint       not null,
+    change_version bigint       not null,
+    primary key (id),
+    constraint fk_rentals_book foreign key (book_id) references books (id)
+) engine = InnoDB;
+
+create index idx_rentals_change_version_id on rentals (change_version, id);
+create index idx_rentals_open_due on rentals (return_date, due_date, id);
+create index idx_rentals_username_date on rentals (username, rental_date, id, return_date);
+
+create table tombstones (
+    id             bigint not null,
+    entity_type    enum ('BOOK','RENTAL') not null,
+    entity_id      bigint not null,
+    change_version bigint not null,
+    primary key (id)
+) engine = InnoDB;
+
+create index idx_tombstones_type_version on tombstones (entity_type, change_version);
+
+create table outbox_events (
+    id              bigint      not null,
+    aggregate_type  varchar(32) not null,
+    aggregate_id    bigint      not null,
+    event_type      enum ('CREATED','DELETED','UPDATED') not null,
+    payload         text        not null,
+    created_at      datetime(6) not null,
+    next_attempt_at datetime(6) not null,
+    attempts        integer     not null,
+    primary key (id)
+) engine = InnoDB;
+
+create index idx_outbox_events_next_attempt on outbox_events (next_attempt_at, id);
+
+create table idempotency_records (
+    id           varchar(64)  not null,
+    fingerprint  varchar(64)  not null,
+    status       integer      not null,
+    content_type varchar(255),
+    body         mediumblob   not null,
+    created_at   datetime(6)  not null,
+    primary key (id)
+) engine = InnoDB;
+
+create index idx_idempotency_records_created_at on idempotency_records (created_at);
+
+-- MySQL has no sequences; Hibernate keeps each one in a single-row table and allocates ids 50 at a time
+create table books_seq (next_val bigint) engine = InnoDB;
+insert into books_seq values (1);
+create table rentals_seq (next_val bigint) engine = InnoDB;
+insert into rentals_seq values (1);
+create table tombstones_seq (next_val bigint) engine = InnoDB;
+insert into tombstones_seq values (1);
+create table outbox_events_seq (next_val bigint) engine = InnoDB;
+insert into outbox_events_seq values (1);
@@ -0,0 +1,3 @@
+-- ddl-auto created these as TINYTEXT/TINYBLOB (255 bytes); a no-op on databases created by V1
+alter table outbox_events modify payload text not null;
+alter table idempotency_records modify body mediumblob not null;
@@ -0,0 +1,16 @@
+-- returned rentals moved out of the live table by RentalArchiver
+create table rentals_archive (
+    id             bigint       not null,
+    username       varchar(255) not null,
+    rental_date    date         not null,
+    return_date    date         not null,
+    due_date       date,
+    overdue_since  date,
+    book_id        bigint       not null,
+    change_version bigint       not null,
+    archived_at    datetime(6)  not null,
+    primary key (id),
+    constraint fk_rentals_archive_book foreign key (book_id) references books (id)
+) engine = InnoDB;
+
+create index idx_rentals_archive_username_date on rentals_archive (username, rental_date, id);
@@ -0,0 +1,6 @@
+-- one row per user, locked by each checkout while it checks the per-user rental limit
+create table user_checkout_locks (
+    username  varchar(255) not null,
+    checkouts bigint       not null,
+    primary key (username)
+) engine = InnoDB;
@@ -0,0 +1,138 @@
+package lk.bookrental.backend.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import lk.bookrental.backend.admission.AdmissionProperties.ClientLimit;
+import lk.bookrental.backend.admission.AdmissionProperties.Priority;
+import lk.bookrental.backend.admission.AdmissionProperties.Route;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void clientOverItsRate_getsTooManyRequests() throws Exception {
+        Route list = new Route(List.of("GET"), List.of("/api/rentals"), List.of("!username"), Priority.BULK, null, 1.0, 2,
+                Map.of("reporting", new ClientLimit(1, 1)), true);
+        AdmissionFilter filter = filter(10, Map.of("rental-list", list));
+
+        assertThat(call(filter, get("/api/rentals", "terminal-1")).getStatus()).isEqualTo(200);
+        assertThat(call(filter, get("/api/rentals", "terminal-1")).getStatus()).isEqualTo(200);
+        MockHttpServletResponse limited = call(filter, get("/api/rentals", "terminal-1"));
+        assertThat(limited.getStatus()).isEqualTo(429);
+        assertThat(limited.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+
+        // buckets are per client, overrides apply to the named client only, and other routes are not limited
+        assertThat(call(filter, get("/api/rentals", "terminal-2")).getStatus()).isEqualTo(200);
+        assertThat(call(filter, get("/api/rentals", "reporting")).getStatus()).isEqualTo(200);
+        assertThat(call(filter, get("/api/rentals", "reporting")).getStatus()).isEqualTo(429);
+        MockHttpServletRequest ownRentals = get("/api/rentals", "terminal-1");
+        ownRentals.setParameter("username", "alice");
+        assertThat(call(filter, ownRentals).getStatus()).isEqualTo(200);
+
+        assertThat(meterRegistry.get("bookrental.admission.shed").tags("route", "rental-list", "reason", "rate").counter().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void routeAtItsConcurrencyLimit_shedsWithServiceUnavailable() throws Exception {
+        Route export = new Route(List.of("GET"), List.of("/api/rentals/export"), null, Priority.BULK, 1, null, null, null, true);
+        AdmissionFilter filter = filter(10, Map.of("export", export));
+
+        AtomicReference<MockHttpServletResponse> nested = new AtomicReference<>();
+        MockHttpServletResponse outer = call(filter, get("/api/rentals/export", "a"),
+                (req, res) -> nested.set(call(filter, get("/api/rentals/export", "b"))));
+
+        assertThat(outer.getStatus()).isEqualTo(200);
+        assertThat(nested.get().getStatus()).isEqualTo(503);
+        assertThat(nested.get().getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        // the permit is released once the first request completes
+        assertThat(call(filter, get("/api/rentals/export", "b")).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void busyServer_shedsBulkReadsBeforeCheckouts() throws Exception {
+        Map<String, Route> routes = new LinkedHashMap<>();
+        routes.put("checkout", new Route(List.of("POST"), List.of("/api/rentals"), null, Priority.CRITICAL, null, null, null, null, true));
+        routes.put("rental-list", new Route(List.of("GET"), List.of("/api/rentals"), null, Priority.BULK, null, null, null, null, true));
+        AdmissionFilter filter = filter(2, routes);
+
+        AtomicReference<MockHttpServletResponse> bulk = new AtomicReference<>();
+        AtomicReference<MockHttpServletResponse> checkout = new AtomicReference<>();
+        call(filter, get("/api/books", "a"), (req, res) -> {
+            bulk.set(call(filter, get("/api/rentals", "b")));
+            checkout.set(call(filter, request("POST", "/api/rentals", "c")));
+        });
+
+        // one request in flight is already the bulk share of two, but checkouts may use both
+        assertThat(bulk.get().getStatus()).isEqualTo(503);
+        assertThat(checkout.get().getStatus()).isEqualTo(200);
+        assertThat(meterRegistry.get("bookrental.admission.shed").tags("route", "rental-list", "reason", "overload").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void openChangeFeedSubscriptions_doNotCrowdOutOtherReads() throws Exception {
+        Map<String, Route> routes = new LinkedHashMap<>();
+        routes.put("change-feed", new Route(List.of("GET"), List.of("/api/changes"), null, Priority.NORMAL, 5, null, null, null, false));
+        routes.put("book-list", new Route(List.of("GET"), List.of("/api/books"), null, Priority.BULK, null, null, null, null, true));
+        AdmissionFilter filter = filter(4, routes);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(subscribe(filter).getStatus()).isEqualTo(200);
+        }
+
+        // five streams stay open, yet a bulk read still finds its share of four free
+        assertThat(call(filter, get("/api/books", "a")).getStatus()).isEqualTo(200);
+        assertThat(meterRegistry.get("bookrental.admission.in.flight").gauge().value()).isZero();
+        // the feed's own cap still applies
+        assertThat(subscribe(filter).getStatus()).isEqualTo(503);
+    }
+
+    private AdmissionFilter filter(int maxConcurrent, Map<String, Route> routes) {
+        return new AdmissionFilter(new AdmissionProperties(maxConcurrent, "X-Client-Id", routes), new ObjectMapper(), meterRegistry);
+    }
+
+    private static MockHttpServletRequest get(String uri, String client) {
+        return request("GET", uri, client);
+    }
+
+    private static MockHttpServletRequest request(String method, String uri, String client) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.addHeader("X-Client-Id", client);
+        return request;
+    }
+
+    // leaves the request's async context open, as an SSE subscription does
+    private static MockHttpServletResponse subscribe(AdmissionFilter filter) {
+        MockHttpServletRequest request = get("/api/changes", "terminal");
+        request.setAsyncSupported(true);
+        return call(filter, request, (req, res) -> req.startAsync());
+    }
+
+    private static MockHttpServletResponse call(AdmissionFilter filter, MockHttpServletRequest request) {
+        return call(filter, request, (req, res) -> { });
+    }
+
+    private static MockHttpServletResponse call(AdmissionFilter filter, MockHttpServletRequest request, FilterChain chain) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, chain);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return response;
+    }
+}
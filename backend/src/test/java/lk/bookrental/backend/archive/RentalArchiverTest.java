@@ -0,0 +1,97 @@
+package lk.bookrental.backend.archive;
+
+import jakarta.persistence.EntityNotFoundException;
+import lk.bookrental.backend.dto.response.RentalResponse;
+import lk.bookrental.backend.model.AvailabilityStatus;
+import lk.bookrental.backend.model.Book;
+import lk.bookrental.backend.model.Rental;
+import lk.bookrental.backend.repository.ArchivedRentalRepository;
+import lk.bookrental.backend.repository.BookRepository;
+import lk.bookrental.backend.repository.RentalRepository;
+import lk.bookrental.backend.service.RentalService;
+import lk.bookrental.backend.sync.ChangeVersions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "bookrental.archive.page-size=2")
+class RentalArchiverTest {
+
+    @Autowired
+    private RentalArchiver archiver;
+
+    @Autowired
+    private RentalService rentalService;
+
+    @Autowired
+    private ChangeVersions changeVersions;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private RentalRepository rentalRepository;
+
+    @Autowired
+    private ArchivedRentalRepository archivedRentalRepository;
+
+    @AfterEach
+    void cleanup() {
+        archivedRentalRepository.deleteAll();
+        rentalRepository.deleteAll();
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    void archive_movesLongReturnedRentals_andHistoryReadsTheUnion() {
+        LocalDate cutoff = LocalDate.of(2024, 1, 1);
+        Long old1 = rent("alice", LocalDate.of(2023, 3, 1), LocalDate.of(2023, 3, 10));
+        Long old2 = rent("bob", LocalDate.of(2023, 4, 1), LocalDate.of(2023, 4, 10));
+        Long old3 = rent("alice", LocalDate.of(2023, 5, 1), LocalDate.of(2023, 5, 10));
+        Long recent = rent("alice", LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 10));
+        Long open = rent("alice", LocalDate.of(2023, 1, 1), null);
+        String etag = changeVersions.etag(Rental.class);
+
+        assertThat(archiver.archive(cutoff)).isEqualTo(3);
+        assertThat(archiver.archive(cutoff)).isZero();
+        assertThat(changeVersions.etag(Rental.class)).isNotEqualTo(etag);
+
+        // the live table only has what can still change; history=true adds the archive back, in the same order
+        assertThat(rentalService.getAllRentals(false)).extracting(RentalResponse::getId).containsExactly(recent, open);
+        assertThat(rentalService.getAllRentals(true)).extracting(RentalResponse::getId)
+                .containsExactly(old1, old2, old3, recent, open);
+        assertThatThrownBy(() -> rentalService.getRentalById(old1, false)).isInstanceOf(EntityNotFoundException.class);
+        RentalResponse archived = rentalService.getRentalById(old1, true);
+        assertThat(archived.getReturnDate()).isEqualTo(LocalDate.of(2023, 3, 10));
+        assertThat(archived.getBook().getTitle()).isEqualTo("Title alice 2023-03-01");
+
+        // alice's history pages across both tables, newest first
+        List<RentalResponse> page1 = rentalService.getUserRentals("alice", false, null, null, 2, true);
+        assertThat(page1).extracting(RentalResponse::getId).containsExactly(recent, old3);
+        RentalResponse last = page1.get(1);
+        assertThat(rentalService.getUserRentals("alice", false, last.getRentalDate(), last.getId(), 2, true))
+                .extracting(RentalResponse::getId).containsExactly(old1, open);
+        assertThat(rentalService.getUserRentals("alice", false, null, null, 10, false))
+                .extracting(RentalResponse::getId).containsExactly(recent, open);
+
+        List<Long> exported = new ArrayList<>();
+        rentalService.exportRentals(true, rental -> exported.add(rental.getId()));
+        assertThat(exported).containsExactly(old1, old2, old3, recent, open);
+    }
+
+    private Long rent(String username, LocalDate rentalDate, LocalDate returnDate) {
+        Book book = bookRepository.save(Book.builder().title("Title " + username + " " + rentalDate).author("Author")
+                .genre("G").availabilityStatus(returnDate == null ? AvailabilityStatus.UNAVAILABLE : AvailabilityStatus.AVAILABLE)
+                .build());
+        return rentalRepository.save(Rental.builder().username(username).rentalDate(rentalDate).returnDate(returnDate)
+                .dueDate(rentalDate.plusDays(14)).book(book).build()).getId();
+    }
+}
@@ -0,0 +1,120 @@
+package lk.bookrental.backend.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lk.bookrental.backend.dto.response.ImportJobResponse;
+import lk.bookrental.backend.dto.response.ImportStatus;
+import lk.bookrental.backend.model.AvailabilityStatus;
+import lk.bookrental.backend.model.Book;
+import lk.bookrental.backend.repository.BookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "bookrental.batch.chunk-size=2")
+@AutoConfigureMockMvc
+class BookImportTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @AfterEach
+    void cleanup() {
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    void importCsv_writesValidRowsInChunks_andReportsRejectedLines() throws Exception {
+        String csv = """
+                title,author,genre,availabilityStatus
+                Dune,Frank Herbert,Sci-Fi,
+                "Good Omens, Revised","Pratchett, Gaiman",Fantasy,UNAVAILABLE
+                ,No Title,Genre,
+                Emma,Jane Austen,Classic,AVAILABLE
+                Persuasion,Jane Austen,Classic,LOST
+                Neuromancer,William Gibson,Sci-Fi,
+                """;
+
+        ImportJobResponse job = awaitCompletion(startImport(csv, "text/csv"));
+
+        assertThat(job.getStatus()).isEqualTo(ImportStatus.COMPLETED);
+        assertThat(job.getRowsRead()).isEqualTo(6);
+        assertThat(job.getImported()).isEqualTo(4);
+        assertThat(job.getFailed()).isEqualTo(2);
+        assertThat(job.getErrors()).hasSize(2);
+        assertThat(job.getErrors().get(0)).startsWith("line 4: title, author and genre are required");
+        assertThat(job.getErrors().get(1)).startsWith("line 6: ");
+
+        List<Book> books = bookRepository.findAll();
+        assertThat(books).extracting(Book::getTitle)
+                .containsExactlyInAnyOrder("Dune", "Good Omens, Revised", "Emma", "Neuromancer");
+        assertThat(books).filteredOn(b -> b.getTitle().startsWith("Good Omens"))
+                .singleElement().satisfies(b -> {
+                    assertThat(b.getAuthor()).isEqualTo("Pratchett, Gaiman");
+                    assertThat(b.getAvailabilityStatus()).isEqualTo(AvailabilityStatus.UNAVAILABLE);
+                });
+    }
+
+    @Test
+    void importNdjson_parsesOneBookPerLine() throws Exception {
+        String ndjson = """
+                {"title":"Dune","author":"Frank Herbert","genre":"Sci-Fi"}
+                {"title":"Emma","author":"Jane Austen","genre":"Classic","availabilityStatus":"UNAVAILABLE"}
+                not json
+                """;
+
+        ImportJobResponse job = awaitCompletion(startImport(ndjson, MediaType.APPLICATION_NDJSON_VALUE));
+
+        assertThat(job.getImported()).isEqualTo(2);
+        assertThat(job.getFailed()).isEqualTo(1);
+        assertThat(bookRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void importCsv_withoutRequiredColumns_failsTheJob() throws Exception {
+        ImportJobResponse job = awaitCompletion(startImport("name,author\nDune,Frank Herbert\n", "text/csv"));
+
+        assertThat(job.getStatus()).isEqualTo(ImportStatus.FAILED);
+        assertThat(job.getMessage()).contains("title");
+    }
+
+    private ImportJobResponse startImport(String body, String contentType) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/books/import").contentType(contentType).content(body))
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists("Location"))
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), ImportJobResponse.class);
+    }
+
+    private ImportJobResponse awaitCompletion(ImportJobResponse started) throws Exception {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            String json = mockMvc.perform(get("/api/books/import/" + started.getId()))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            ImportJobResponse job = objectMapper.readValue(json, ImportJobResponse.class);
+            if (job.getStatus() == ImportStatus.COMPLETED || job.getStatus() == ImportStatus.FAILED) {
+                return job;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("import did not finish");
+    }
+}
@@ -0,0 +1,79 @@
+package lk.bookrental.backend.controller;
+
+import lk.bookrental.backend.dto.request.BookRequest;
+import lk.bookrental.backend.dto.request.RentalRequest;
+import lk.bookrental.backend.dto.response.BookResponse;
+import lk.bookrental.backend.feed.ChangeFeed;
+import lk.bookrental.backend.repository.BookRepository;
+import lk.bookrental.backend.repository.RentalRepository;
+import lk.bookrental.backend.service.BookService;
+import lk.bookrental.backend.service.RentalService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ChangeFeedControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private RentalService rentalService;
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private RentalRepository rentalRepository;
+
+    @AfterEach
+    void cleanup() {
+        changeFeed.shutdown();
+        rentalRepository.deleteAll();
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    void subscribe_streamsCommittedBookAndRentalChanges() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/changes")).andExpect(request().asyncStarted()).andReturn();
+
+        BookResponse book = bookService.createBook(new BookRequest("Dune", "Frank Herbert", "Sci-Fi", null));
+        rentalService.createRental(new RentalRequest("alice", LocalDate.of(2024, 1, 1), null, book.getId()));
+
+        String body = awaitContent(result, "event:rental");
+        assertThat(body).contains("event:book").contains("\"type\":\"CREATED\"").contains("\"title\":\"Dune\"");
+        // the rental event carries the book's new availability, so clients need no extra fetch
+        assertThat(body.substring(body.indexOf("event:rental"))).contains("\"availabilityStatus\":\"UNAVAILABLE\"");
+        assertThat(result.getResponse().getContentType()).startsWith("text/event-stream");
+    }
+
+    private static String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        String body = result.getResponse().getContentAsString();
+        while (!body.contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            body = result.getResponse().getContentAsString();
+        }
+        assertThat(body).contains(expected);
+        return body;
+    }
+}
@@ -0,0 +1,108 @@
+package lk.bookrental.backend.controller;
+
+import lk.bookrental.backend.dto.request.BookRequest;
+import lk.bookrental.backend.dto.request.RentalRequest;
+import lk.bookrental.backend.dto.response.BookResponse;
+import lk.bookrental.backend.repository.BookRepository;
+import lk.bookrental.backend.repository.RentalRepository;
+import lk.bookrental.backend.service.BookService;
+import lk.bookrental.backend.service.RentalService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConditionalGetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private RentalService rentalService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @MockitoSpyBean
+    private RentalRepository rentalRepository;
+
+    private BookResponse book;
+
+    @BeforeEach
+    void setup() {
+        book = bookService.createBook(new BookRequest("Dune", "Frank Herbert", "Sci-Fi", null));
+        rentalService.createRental(new RentalRequest("alice", LocalDate.of(2024, 1, 1), null, book.getId()));
+    }
+
+    @AfterEach
+    void cleanup() {
+        rentalRepository.deleteAll();
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    void getRentals_answersMatchingIfNoneMatchWithoutQuerying() throws Exception {
+        String etag = mockMvc.perform(get("/api/rentals"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).startsWith("\"").doesNotStartWith("W/");
+        clearInvocations(rentalRepository);
+
+        mockMvc.perform(get("/api/rentals").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(rentalRepository, never()).findAllResponses();
+    }
+
+    @Test
+    void getRentals_changesTagWhenAnEmbeddedBookChanges() throws Exception {
+        String etag = mockMvc.perform(get("/api/rentals")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        bookService.updateBook(book.getId(), new BookRequest("Dune", "Frank Herbert", "Science Fiction", null));
+
+        String newEtag = mockMvc.perform(get("/api/rentals").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(newEtag).isNotEqualTo(etag);
+    }
+
+    @Test
+    void getBook_revalidatesUntilTheBookChanges() throws Exception {
+        String url = "/api/books/" + book.getId();
+        String etag = mockMvc.perform(get(url)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag)).andExpect(status().isNotModified());
+        // a rental-only write leaves book tags alone
+        rentalService.updateRental(rentalRepository.findAll().get(0).getId(), new RentalRequest("bob", null, null, null));
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag)).andExpect(status().isNotModified());
+
+        bookService.updateBook(book.getId(), new BookRequest("Dune", "Frank Herbert", "Science Fiction", null));
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("Science Fiction")));
+    }
+}
@@ -0,0 +1,74 @@
+package lk.bookrental.backend.controller;
+
+import lk.bookrental.backend.dto.request.BookRequest;
+import lk.bookrental.backend.dto.request.RentalRequest;
+import lk.bookrental.backend.dto.response.BookResponse;
+import lk.bookrental.backend.repository.BookRepository;
+import lk.bookrental.backend.repository.RentalRepository;
+import lk.bookrental.backend.service.BookService;
+import lk.bookrental.backend.service.RentalService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private RentalService rentalService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private RentalRepository rentalRepository;
+
+    @AfterEach
+    void cleanup() {
+        rentalRepository.deleteAll();
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    void prometheusEndpoint_exposesLatencyQueryCountPoolAndConflictMetrics() throws Exception {
+        BookResponse book = bookService.createBook(new BookRequest("Dune", "Frank Herbert", "Sci-Fi", null));
+        RentalRequest checkout = new RentalRequest("alice", LocalDate.of(2024, 1, 1), null, book.getId());
+        rentalService.createRental(checkout);
+        assertThrows(IllegalStateException.class, () -> rentalService.createRental(checkout));
+        mockMvc.perform(get("/api/rentals")).andExpect(status().isOk());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(scrape)
+                .contains("http_server_requests_seconds_bucket{")
+                .contains("bookrental_service_seconds_bucket{")
+                .contains("class=\"lk.bookrental.backend.service.impl.RentalServiceImpl\"")
+                .contains("spring_data_repository_invocations_seconds_bucket{")
+                .contains("hikaricp_connections_pending")
+                .contains("jvm_gc_memory_allocated_bytes_total")
+                .contains("hibernate_second_level_cache_requests_total{")
+                .containsPattern("bookrental_http_queries_statements_count\\{[^}]*uri=\"/api/rentals\"[^}]*} 1")
+                .containsPattern("bookrental_rentals_checkout_conflicts_total\\{[^}]*path=\"single\"[^}]*} 1");
+    }
+}
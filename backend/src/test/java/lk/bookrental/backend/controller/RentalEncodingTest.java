@@ -0,0 +1,125 @@
+package lk.bookrental.backend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import lk.bookrental.backend.model.AvailabilityStatus;
+import lk.bookrental.backend.model.Book;
+import lk.bookrental.backend.model.Rental;
+import lk.bookrental.backend.repository.BookRepository;
+import lk.bookrental.backend.repository.RentalRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class RentalEncodingTest {
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private RentalRepository rentalRepository;
+
+    @BeforeEach
+    void setup() {
+        Book dune = bookRepository.save(Book.builder().title("Dune").author("Frank Herbert").genre("Sci-Fi")
+                .availabilityStatus(AvailabilityStatus.UNAVAILABLE).build());
+        Book emma = bookRepository.save(Book.builder().title("Emma").author("Jane Austen").genre("Classic")
+                .availabilityStatus(AvailabilityStatus.AVAILABLE).build());
+        for (int i = 0; i < 3; i++) {
+            rentalRepository.save(Rental.builder().username("user" + i).rentalDate(LocalDate.of(2024, 1, 1 + i))
+                    .returnDate(LocalDate.of(2024, 2, 1)).book(dune).build());
+        }
+        rentalRepository.save(Rental.builder().username("user3").rentalDate(LocalDate.of(2024, 1, 4)).book(emma).build());
+    }
+
+    @AfterEach
+    void cleanup() {
+        rentalRepository.deleteAll();
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    void binaryEncodings_carryTheSameDocumentAsJson() throws Exception {
+        JsonNode json = read(new ObjectMapper(), MediaType.APPLICATION_JSON, "/api/rentals");
+        JsonNode cbor = read(new ObjectMapper(new CBORFactory()), MediaType.parseMediaType("application/cbor"), "/api/rentals");
+        JsonNode smile = read(new ObjectMapper(new SmileFactory()), SMILE, "/api/rentals");
+
+        assertThat(json).hasSize(4);
+        assertThat(json.get(0).get("rentalDate").asText()).isEqualTo("2024-01-01");
+        assertThat(cbor).isEqualTo(json);
+        assertThat(smile).isEqualTo(json);
+    }
+
+    @Test
+    void eachEncoding_revalidatesOnlyWithItsOwnETag() throws Exception {
+        MediaType cbor = MediaType.parseMediaType("application/cbor");
+        String jsonTag = etag(MediaType.APPLICATION_JSON);
+        String cborTag = etag(cbor);
+        String smileTag = etag(SMILE);
+
+        assertThat(cborTag).isNotEqualTo(jsonTag).isNotEqualTo(smileTag);
+        assertThat(smileTag).isNotEqualTo(jsonTag);
+        mockMvc.perform(get("/api/rentals").accept(cbor).header(HttpHeaders.IF_NONE_MATCH, cborTag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/rentals").accept(cbor).header(HttpHeaders.IF_NONE_MATCH, jsonTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, cborTag));
+        mockMvc.perform(get("/api/rentals").accept(MediaType.APPLICATION_JSON).header(HttpHeaders.IF_NONE_MATCH, cborTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, jsonTag));
+    }
+
+    @Test
+    void normalizedShape_listsEachBookOnce() throws Exception {
+        JsonNode body = read(new ObjectMapper(new SmileFactory()), SMILE, "/api/rentals?shape=normalized");
+
+        assertThat(body.get("rentals")).hasSize(4);
+        assertThat(body.get("rentals").get(0).has("book")).isFalse();
+        assertThat(body.get("books")).hasSize(2);
+        assertThat(body.get("books").get(0).get("title").asText()).isEqualTo("Dune");
+        assertThat(body.get("rentals").get(3).get("bookId")).isEqualTo(body.get("books").get(1).get("id"));
+    }
+
+    @Test
+    void unknownShape_isRejected() throws Exception {
+        mockMvc.perform(get("/api/rentals").param("shape", "flat")).andExpect(status().isBadRequest());
+    }
+
+    private String etag(MediaType mediaType) throws Exception {
+        return mockMvc.perform(get("/api/rentals").accept(mediaType))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private JsonNode read(ObjectMapper decoder, MediaType mediaType, String uri) throws Exception {
+        byte[] body = mockMvc.perform(get(uri).accept(mediaType))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(mediaType))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn().getResponse().getContentAsByteArray();
+        return decoder.readTree(body);
+    }
+}
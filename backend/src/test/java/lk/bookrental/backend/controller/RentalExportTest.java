@@ -0,0 +1,85 @@
+package lk.bookrental.backend.controller;
+
+import lk.bookrental.backend.model.AvailabilityStatus;
+import lk.bookrental.backend.model.Book;
+import lk.bookrental.backend.model.Rental;
+import lk.bookrental.backend.repository.BookRepository;
+import lk.bookrental.backend.repository.RentalRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class RentalExportTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private RentalRepository rentalRepository;
+
+    @BeforeEach
+    void setup() {
+        Book book = bookRepository.save(Book.builder().title("Dune, Part One").author("Frank \"F\" Herbert").genre("Sci-Fi")
+                .availabilityStatus(AvailabilityStatus.UNAVAILABLE).build());
+        for (int i = 0; i < 3; i++) {
+            rentalRepository.save(Rental.builder().username("user" + i).rentalDate(LocalDate.of(2024, 1, 1 + i))
+                    .returnDate(i < 2 ? LocalDate.of(2024, 2, 1) : null).book(book).build());
+        }
+    }
+
+    @AfterEach
+    void cleanup() {
+        rentalRepository.deleteAll();
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    void export_writesOneJsonObjectPerLine() throws Exception {
+        String body = export("ndjson");
+
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(3);
+        assertThat(lines[0]).startsWith("{").contains("\"username\":\"user0\"").contains("\"title\":\"Dune, Part One\"");
+        assertThat(lines[2]).contains("\"returnDate\":null");
+    }
+
+    @Test
+    void export_writesCsvWithQuotedFields() throws Exception {
+        String body = export("csv");
+
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(4);
+        assertThat(lines[0]).isEqualTo("id,username,rentalDate,returnDate,bookId,title,author,genre,availabilityStatus");
+        assertThat(lines[1]).contains(",user0,2024-01-01,2024-02-01,").contains("\"Dune, Part One\",\"Frank \"\"F\"\" Herbert\",Sci-Fi,UNAVAILABLE");
+        assertThat(lines[3]).contains(",user2,2024-01-03,,");
+    }
+
+    @Test
+    void export_rejectsUnknownFormat() throws Exception {
+        mockMvc.perform(get("/api/rentals/export").param("format", "xml")).andExpect(status().isBadRequest());
+    }
+
+    private String export(String format) throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/rentals/export").param("format", format)).andReturn();
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+}
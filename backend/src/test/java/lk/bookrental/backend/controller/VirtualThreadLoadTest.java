@@ -0,0 +1,186 @@
+package lk.bookrental.backend.controller;
+
+import lk.bookrental.backend.BackendApplication;
+import lk.bookrental.backend.dto.request.BookRequest;
+import lk.bookrental.backend.dto.request.RentalRequest;
+import lk.bookrental.backend.service.BookService;
+import lk.bookrental.backend.service.RentalService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// run with ./mvnw test -Pbenchmark; drives the same mixed load against the app on platform and on virtual threads
+@Tag("benchmark")
+class VirtualThreadLoadTest {
+
+    private static final int CLIENTS = 300;
+    private static final int REQUESTS_PER_CLIENT = 20;
+    private static final int BOOKS = 100;
+
+    @Test
+    void platformVersusVirtualThreads() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        System.out.println(platform);
+        System.out.println(virtual);
+        assertThat(platform.errors + virtual.errors).isZero();
+    }
+
+    // half the requests read a cached book and never touch the database, the other half list rentals
+    private Result run(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BackendApplication.class, DatabaseLatency.class)
+                .properties("server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.datasource.url=jdbc:h2:mem:load-" + virtualThreads + ";MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "logging.level.root=WARN",
+                        // compares raw thread models; with admission control on, part of the load would be shed
+                        "bookrental.admission.enabled=false")
+                .run()) {
+            List<Long> bookIds = seed(context);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+            // warm up, which also fills the book cache
+            for (Long id : bookIds) {
+                send(client, port, "/api/books/" + id);
+            }
+            for (int i = 0; i < 200; i++) {
+                send(client, port, "/api/rentals");
+            }
+
+            long[] cachedNanos = new long[CLIENTS * REQUESTS_PER_CLIENT / 2];
+            long[] databaseNanos = new long[CLIENTS * REQUESTS_PER_CLIENT / 2];
+            AtomicInteger cachedCount = new AtomicInteger();
+            AtomicInteger databaseCount = new AtomicInteger();
+            AtomicInteger errors = new AtomicInteger();
+            long start = System.nanoTime();
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int c = 0; c < CLIENTS; c++) {
+                    int clientId = c;
+                    clients.submit(() -> {
+                        for (int r = 0; r < REQUESTS_PER_CLIENT; r++) {
+                            boolean cached = (clientId + r) % 2 == 0;
+                            String path = cached ? "/api/books/" + bookIds.get((clientId + r) % BOOKS) : "/api/rentals";
+                            long sent = System.nanoTime();
+                            int status = send(client, port, path);
+                            long elapsed = System.nanoTime() - sent;
+                            if (status != 200) {
+                                errors.incrementAndGet();
+                            }
+                            if (cached) {
+                                cachedNanos[cachedCount.getAndIncrement()] = elapsed;
+                            } else {
+                                databaseNanos[databaseCount.getAndIncrement()] = elapsed;
+                            }
+                        }
+                    });
+                }
+            }
+            long elapsedNanos = System.nanoTime() - start;
+            return new Result(virtualThreads ? "virtual" : "platform", CLIENTS * REQUESTS_PER_CLIENT * 1e9 / elapsedNanos,
+                    cachedNanos, databaseNanos, errors.get());
+        }
+    }
+
+    private static List<Long> seed(ConfigurableApplicationContext context) {
+        BookService bookService = context.getBean(BookService.class);
+        RentalService rentalService = context.getBean(RentalService.class);
+        List<Long> bookIds = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i++) {
+            Long id = bookService.createBook(new BookRequest("Title " + i, "Author " + i, "Genre", null)).getId();
+            bookIds.add(id);
+            if (i < 20) {
+                rentalService.createRental(new RentalRequest("user" + i, LocalDate.now(), null, id));
+            }
+        }
+        return bookIds;
+    }
+
+    private static int send(HttpClient client, int port, String path) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build();
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    // an in-memory database answers in microseconds; hold every connection a few milliseconds longer,
+    // as the network round trips to a real database would
+    @TestConfiguration
+    static class DatabaseLatency {
+
+        @Bean
+        static BeanPostProcessor slowConnections() {
+            return new SlowConnections();
+        }
+    }
+
+    private static final class SlowConnections implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DataSource dataSource) {
+                return new DelegatingDataSource(dataSource) {
+                    @Override
+                    public Connection getConnection() throws SQLException {
+                        Connection connection = super.getConnection();
+                        try {
+                            Thread.sleep(5);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return connection;
+                    }
+                };
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+
+    private record Result(String mode, double requestsPerSecond, long[] cachedNanos, long[] databaseNanos, int errors) {
+
+        @Override
+        public String toString() {
+            return String.format("%-8s %8.0f req/s | cached p50 %6.1f ms p99 %7.1f ms | database p50 %6.1f ms p99 %7.1f ms | errors %d",
+                    mode, requestsPerSecond, percentile(cachedNanos, 0.50), percentile(cachedNanos, 0.99),
+                    percentile(databaseNanos, 0.50), percentile(databaseNanos, 0.99), errors);
+        }
+
+        private static double percentile(long[] nanos, double p) {
+            long[] sorted = nanos.clone();
+            Arrays.sort(sorted);
+            return sorted[(int) Math.ceil(p * sorted.length) - 1] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package lk.bookrental.backend.controller;
+
+import lk.bookrental.backend.db.BulkheadDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"spring.threads.virtual.enabled=true", "bookrental.db.bulkhead.permits=3"})
+@AutoConfigureMockMvc
+class VirtualThreadModeTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void virtualThreadMode_putsTheBulkheadInFrontOfThePool() throws Exception {
+        BulkheadDataSource bulkhead = dataSource.unwrap(BulkheadDataSource.class);
+        assertThat(bulkhead.availablePermits()).isEqualTo(3);
+
+        mockMvc.perform(get("/api/rentals")).andExpect(status().isOk());
+        assertThat(bulkhead.availablePermits()).isEqualTo(3);
+    }
+}
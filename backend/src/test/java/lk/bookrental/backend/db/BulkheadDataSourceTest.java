@@ -0,0 +1,83 @@
+package lk.bookrental.backend.db;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BulkheadDataSourceTest {
+
+    @Test
+    void closingAConnectionReturnsItsPermitOnce() throws Exception {
+        DataSource target = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        when(target.getConnection()).thenReturn(connection);
+        BulkheadDataSource bulkhead = new BulkheadDataSource(target, 2, 10, Duration.ofSeconds(1));
+
+        Connection first = bulkhead.getConnection();
+        bulkhead.getConnection();
+        assertThat(bulkhead.availablePermits()).isZero();
+
+        first.close();
+        first.close();
+        assertThat(bulkhead.availablePermits()).isEqualTo(1);
+        verify(connection, times(2)).close();
+    }
+
+    @Test
+    void waitersGetAPermitWhenOneIsReleased_andTimeOutOtherwise() throws Exception {
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        BulkheadDataSource bulkhead = new BulkheadDataSource(target, 1, 10, Duration.ofMillis(200));
+
+        Connection held = bulkhead.getConnection();
+        assertThrows(SQLTransientConnectionException.class, bulkhead::getConnection);
+        assertThat(bulkhead.rejected()).isEqualTo(1);
+
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread.ofVirtual().start(() -> {
+            try (Connection ignored = bulkhead.getConnection()) {
+                acquired.countDown();
+            } catch (Exception ignored) {
+            }
+        });
+        while (bulkhead.waiting() == 0) {
+            Thread.onSpinWait();
+        }
+        held.close();
+        assertThat(acquired.await(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void rejectsImmediatelyWhenTheQueueIsFull() throws Exception {
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        BulkheadDataSource bulkhead = new BulkheadDataSource(target, 1, 0, Duration.ofSeconds(30));
+        bulkhead.getConnection();
+
+        long start = System.nanoTime();
+        assertThrows(SQLTransientConnectionException.class, bulkhead::getConnection);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void failedAcquisitionFromThePoolGivesThePermitBack() throws Exception {
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenThrow(new SQLTransientConnectionException("pool exhausted"));
+        BulkheadDataSource bulkhead = new BulkheadDataSource(target, 1, 10, Duration.ofSeconds(1));
+
+        assertThrows(SQLTransientConnectionException.class, bulkhead::getConnection);
+        assertThat(bulkhead.availablePermits()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,121 @@
+package lk.bookrental.backend.db;
+
+import com.jayway.jsonpath.JsonPath;
+import jakarta.servlet.http.Cookie;
+import lk.bookrental.backend.dto.request.BookRequest;
+import lk.bookrental.backend.dto.response.RentalResponse;
+import lk.bookrental.backend.repository.BookRepository;
+import lk.bookrental.backend.repository.RentalRepository;
+import lk.bookrental.backend.service.BookService;
+import lk.bookrental.backend.service.SyncService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// two in-memory databases stand in for primary and replica; replicate() copies the primary over on demand
+@SpringBootTest(properties = {
+        "bookrental.datasource.replica.url=" + ReadReplicaRoutingTest.REPLICA_URL,
+        "bookrental.datasource.replica.max-lag=3s"
+})
+@AutoConfigureMockMvc
+class ReadReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:bookrental-replica;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private SyncService syncService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private RentalRepository rentalRepository;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @AfterEach
+    void cleanup() {
+        rentalRepository.deleteAll();
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    void readsGoToTheReplica_untilTheClientHasWritten() throws Exception {
+        Long bookId = bookService.createBook(new BookRequest("Dune", "Frank Herbert", "Sci-Fi", null)).getId();
+        replicate();
+
+        MvcResult created = mockMvc.perform(post("/api/rentals").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"alice\",\"rentalDate\":\"2024-01-01\",\"bookId\":" + bookId + "}"))
+                .andExpect(status().isOk())
+                .andReturn();
+        long rentalId = ((Number) JsonPath.read(created.getResponse().getContentAsString(), "$.id")).longValue();
+        Cookie pin = created.getResponse().getCookie(ReadYourWritesFilter.COOKIE);
+        assertThat(pin).isNotNull();
+
+        // the write went to the primary; another client reads the replica, which has not seen it yet
+        mockMvc.perform(get("/api/rentals/" + rentalId)).andExpect(status().isNotFound());
+        // the writer is pinned to the primary and reads its own write
+        mockMvc.perform(get("/api/rentals/" + rentalId).cookie(pin)).andExpect(status().isOk());
+        // delta sync always reads the primary
+        assertThat(syncService.getRentalChanges(0, null, null).getItems()).extracting(RentalResponse::getId).contains(rentalId);
+
+        replicate();
+        // caught up, but still within max-lag of a change: served without an ETag, so it is never cached as current
+        mockMvc.perform(get("/api/rentals/" + rentalId))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+
+        Thread.sleep(3_000);
+        mockMvc.perform(get("/api/rentals/" + rentalId))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG));
+    }
+
+    private void replicate() throws SQLException {
+        List<String> script = new ArrayList<>();
+        try (Connection primary = primaryDataSource.getConnection();
+             Statement statement = primary.createStatement();
+             ResultSet rows = statement.executeQuery("SCRIPT")) {
+            while (rows.next()) {
+                script.add(rows.getString(1));
+            }
+        }
+        try (Connection replica = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement statement = replica.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            for (String sql : script) {
+                statement.execute(sql);
+            }
+        }
+    }
+}
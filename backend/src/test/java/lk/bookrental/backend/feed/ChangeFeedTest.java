@@ -0,0 +1,102 @@
+package lk.bookrental.backend.feed;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChangeFeedTest {
+
+    private final ChangeFeed feed = new ChangeFeed(4, Duration.ofSeconds(30));
+
+    @Test
+    void publish_deliversEventsInOrderWithIncreasingIds() throws Exception {
+        RecordingSink sink = new RecordingSink(null);
+        feed.subscribe(sink);
+
+        feed.publish("book", "a");
+        feed.publish("rental", "b");
+        feed.publish("book", "c");
+
+        sink.awaitEvents(3);
+        assertThat(sink.events).extracting(FeedEvent::name).containsExactly("book", "rental", "book");
+        assertThat(sink.events).extracting(FeedEvent::id).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void publish_evictsSlowSubscriberWithoutHoldingUpOthers() throws Exception {
+        CountDownLatch stalled = new CountDownLatch(1);
+        RecordingSink slow = new RecordingSink(stalled);
+        RecordingSink fast = new RecordingSink(null);
+        feed.subscribe(slow);
+        feed.subscribe(fast);
+
+        // the slow sink is stuck writing, so its buffer of 4 overflows on the fifth event,
+        // while the fast one keeps up with every event as it is published
+        for (int i = 0; i < 5; i++) {
+            feed.publish("book", i);
+            fast.awaitEvents(i + 1);
+        }
+
+        assertThat(feed.subscriberCount()).isEqualTo(1);
+
+        stalled.countDown();
+        assertThat(slow.closed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(slow.events).extracting(FeedEvent::name).containsExactly(ChangeFeed.RESYNC);
+    }
+
+    @Test
+    void shutdown_closesSubscribers() throws Exception {
+        RecordingSink sink = new RecordingSink(null);
+        feed.subscribe(sink);
+
+        feed.shutdown();
+
+        assertThat(sink.closed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(feed.subscriberCount()).isZero();
+    }
+
+    private static final class RecordingSink implements FeedSink {
+        private final List<FeedEvent> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch closed = new CountDownLatch(1);
+        private final CountDownLatch stalled;
+
+        private RecordingSink(CountDownLatch stalled) {
+            this.stalled = stalled;
+        }
+
+        @Override
+        public void send(FeedEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void heartbeat() {
+            if (stalled != null) {
+                try {
+                    stalled.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+
+        private void awaitEvents(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (events.size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(events).hasSize(count);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package lk.bookrental.backend.idempotency;
+
+import com.jayway.jsonpath.JsonPath;
+import lk.bookrental.backend.dto.response.ImportStatus;
+import lk.bookrental.backend.model.AvailabilityStatus;
+import lk.bookrental.backend.model.Book;
+import lk.bookrental.backend.repository.BookRepository;
+import lk.bookrental.backend.repository.IdempotencyRecordRepository;
+import lk.bookrental.backend.repository.RentalRepository;
+import lk.bookrental.backend.service.BookImportService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class IdempotencyTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private RentalRepository rentalRepository;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private BookImportService bookImportService;
+
+    private Long bookId;
+
+    @BeforeEach
+    void setup() {
+        bookId = bookRepository.save(Book.builder().title("Dune").author("Frank Herbert").genre("Sci-Fi")
+                .availabilityStatus(AvailabilityStatus.AVAILABLE).build()).getId();
+    }
+
+    @AfterEach
+    void cleanup() {
+        rentalRepository.deleteAll();
+        bookRepository.deleteAll();
+        idempotencyRecordRepository.deleteAll();
+    }
+
+    @Test
+    void retry_replaysTheFirstResponseWithoutRentingAgain() throws Exception {
+        MockHttpServletResponse first = checkout("key-1", "alice");
+        MockHttpServletResponse retry = checkout("key-1", "alice");
+
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(first.getHeader(IdempotencyFilter.REPLAYED)).isNull();
+        // without the key, the retry would be refused: the book is no longer available
+        assertThat(retry.getStatus()).isEqualTo(200);
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED)).isEqualTo("true");
+        assertThat(retry.getContentAsString()).isEqualTo(first.getContentAsString());
+        assertThat(rentalRepository.count()).isEqualTo(1);
+
+        assertThat(checkout("key-1", "bob").getStatus()).isEqualTo(422);
+        assertThat(checkout("key-2", "bob").getStatus()).isEqualTo(400);
+    }
+
+    @Test
+    void concurrentDuplicates_runTheWriteOnce() throws Exception {
+        int clients = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<MockHttpServletResponse>> responses = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(clients)) {
+            for (int i = 0; i < clients; i++) {
+                responses.add(executor.submit((Callable<MockHttpServletResponse>) () -> {
+                    start.await();
+                    return checkout("same-key", "alice");
+                }));
+            }
+            start.countDown();
+            String body = null;
+            for (Future<MockHttpServletResponse> response : responses) {
+                assertThat(response.get().getStatus()).isEqualTo(200);
+                body = body == null ? response.get().getContentAsString() : body;
+                assertThat(response.get().getContentAsString()).isEqualTo(body);
+            }
+        }
+        assertThat(rentalRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void keyedImport_isFingerprintedAsItStreams() throws Exception {
+        String csv = "title,author,genre\nEmma,Jane Austen,Classic\n";
+        MockHttpServletResponse first = importBooks("import-1", csv);
+        MockHttpServletResponse retry = importBooks("import-1", csv);
+
+        assertThat(first.getStatus()).isEqualTo(202);
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED)).isEqualTo("true");
+        assertThat(retry.getContentAsString()).isEqualTo(first.getContentAsString());
+        assertThat(importBooks("import-1", csv + "Dune,Frank Herbert,Sci-Fi\n").getStatus()).isEqualTo(422);
+
+        // let the one import finish before cleanup deletes the books
+        String jobId = JsonPath.read(first.getContentAsString(), "$.id");
+        for (int attempt = 0; attempt < 100; attempt++) {
+            ImportStatus status = bookImportService.getImport(jobId).getStatus();
+            if (status != ImportStatus.QUEUED && status != ImportStatus.RUNNING) {
+                break;
+            }
+            Thread.sleep(50);
+        }
+        assertThat(bookImportService.getImport(jobId).getStatus()).isEqualTo(ImportStatus.COMPLETED);
+    }
+
+    @Test
+    void persistentStore_findsResponsesAfterARestart() throws Exception {
+        IdempotencyStore store = persistentStore();
+        assertThat(store.acquire("k")).isNull();
+        store.release("k", new IdempotentResponse("f", 200, MediaType.APPLICATION_JSON_VALUE,
+                "{\"id\":1}".getBytes(StandardCharsets.UTF_8)));
+
+        IdempotentResponse replayed = persistentStore().acquire("k");
+        assertThat(replayed).isNotNull();
+        assertThat(new String(replayed.body(), StandardCharsets.UTF_8)).isEqualTo("{\"id\":1}");
+    }
+
+    private IdempotencyStore persistentStore() {
+        return new IdempotencyStore(idempotencyRecordRepository, Duration.ofHours(1), DataSize.ofMegabytes(1),
+                Duration.ofSeconds(5), true);
+    }
+
+    private MockHttpServletResponse importBooks(String key, String csv) throws Exception {
+        return mockMvc.perform(post("/api/books/import")
+                        .header(IdempotencyFilter.HEADER, key)
+                        .contentType("text/csv")
+                        .content(csv))
+                .andReturn().getResponse();
+    }
+
+    private MockHttpServletResponse checkout(String key, String username) throws Exception {
+        return mockMvc.perform(post("/api/rentals")
+                        .header(IdempotencyFilter.HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + username + "\",\"rentalDate\":\"2024-01-01\",\"bookId\":" + bookId + "}"))
+                .andReturn().getResponse();
+    }
+}
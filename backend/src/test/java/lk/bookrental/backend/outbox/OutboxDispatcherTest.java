@@ -0,0 +1,179 @@
+package lk.bookrental.backend.outbox;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lk.bookrental.backend.dto.request.BookRequest;
+import lk.bookrental.backend.dto.request.RentalRequest;
+import lk.bookrental.backend.event.ChangeType;
+import lk.bookrental.backend.model.OutboxEvent;
+import lk.bookrental.backend.repository.BookRepository;
+import lk.bookrental.backend.repository.OutboxEventRepository;
+import lk.bookrental.backend.repository.RentalRepository;
+import lk.bookrental.backend.service.BookService;
+import lk.bookrental.backend.service.RentalService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = "bookrental.outbox.retry-backoff=1m")
+@RecordApplicationEvents
+class OutboxDispatcherTest {
+
+    @TempDir
+    static Path outboxDir;
+
+    @DynamicPropertySource
+    static void outboxFile(DynamicPropertyRegistry registry) {
+        registry.add("bookrental.outbox.file.path", () -> outboxDir.resolve("outbox.ndjson").toString());
+    }
+
+    @TestConfiguration
+    static class FlakySinkConfig {
+        @Bean
+        FlakySink flakySink() {
+            return new FlakySink();
+        }
+    }
+
+    static class FlakySink implements OutboxSink {
+        final AtomicBoolean failing = new AtomicBoolean();
+
+        @Override
+        public String name() {
+            return "flaky";
+        }
+
+        @Override
+        public void deliver(List<OutboxMessage> batch) {
+            if (failing.get()) {
+                throw new IllegalStateException("sink down");
+            }
+        }
+    }
+
+    @Autowired
+    private OutboxDispatcher dispatcher;
+
+    @Autowired
+    private FlakySink flakySink;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private RentalService rentalService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private RentalRepository rentalRepository;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setup() throws Exception {
+        outboxEventRepository.deleteAll();
+        Files.deleteIfExists(outboxDir.resolve("outbox.ndjson"));
+        flakySink.failing.set(false);
+    }
+
+    @AfterEach
+    void cleanup() {
+        rentalRepository.deleteAll();
+        bookRepository.deleteAll();
+        outboxEventRepository.deleteAll();
+    }
+
+    @Test
+    void rentalChanges_areWrittenWithTheirTransaction_andDeliveredToEverySink() throws Exception {
+        Long bookId = bookService.createBook(new BookRequest("Dune", "Frank Herbert", "Sci-Fi", null)).getId();
+        RentalRequest checkout = new RentalRequest("alice", LocalDate.now(), null, bookId);
+        Long rentalId = rentalService.createRental(checkout).getId();
+        // the failed second checkout rolls back, and its outbox row with it
+        assertThrows(IllegalStateException.class, () -> rentalService.createRental(checkout));
+        rentalService.updateRental(rentalId, new RentalRequest(null, null, LocalDate.now(), null));
+
+        assertThat(outboxEventRepository.findAll()).extracting(OutboxEvent::getEventType)
+                .containsExactly(ChangeType.CREATED, ChangeType.UPDATED);
+
+        assertThat(dispatcher.dispatchOnce()).isEqualTo(2);
+
+        assertThat(outboxEventRepository.count()).isZero();
+        assertThat(events.stream(OutboxMessage.class)).extracting(OutboxMessage::aggregateId)
+                .containsExactly(rentalId, rentalId);
+        List<String> lines = Files.readAllLines(outboxDir.resolve("outbox.ndjson"));
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0)).contains("\"eventType\":\"CREATED\"").contains("\"username\":\"alice\"");
+    }
+
+    @Test
+    void aFailingSink_leavesTheBatchInTheOutbox_andItIsRetriedAfterTheBackoff() {
+        Long bookId = bookService.createBook(new BookRequest("Emma", "Jane Austen", "Classic", null)).getId();
+        rentalService.createRental(new RentalRequest("bob", LocalDate.now(), null, bookId));
+        flakySink.failing.set(true);
+
+        assertThat(dispatcher.dispatchOnce()).isZero();
+        OutboxEvent pending = outboxEventRepository.findAll().get(0);
+        assertThat(pending.getAttempts()).isEqualTo(1);
+        assertThat(pending.getNextAttemptAt()).isAfter(Instant.now().plusSeconds(30));
+
+        flakySink.failing.set(false);
+        assertThat(dispatcher.dispatchOnce()).isZero();
+        assertThat(dispatcher.dispatch(Instant.now().plus(Duration.ofMinutes(2)))).isEqualTo(1);
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+
+    @Test
+    void aClaimedBatch_isNotDeliveredAgainByAnotherInstance() {
+        Long bookId = bookService.createBook(new BookRequest("Persuasion", "Jane Austen", "Classic", null)).getId();
+        rentalService.createRental(new RentalRequest("carol", LocalDate.now(), null, bookId));
+        // while the first instance's sink holds the batch, the second instance's dispatcher looks for due rows
+        List<Integer> seenByOther = new ArrayList<>();
+        OutboxSink slowSink = new OutboxSink() {
+            @Override
+            public String name() {
+                return "slow";
+            }
+
+            @Override
+            public void deliver(List<OutboxMessage> batch) {
+                seenByOther.add(dispatcher.dispatchOnce());
+            }
+        };
+        OutboxDispatcher first = new OutboxDispatcher(outboxEventRepository, List.of(slowSink), transactionManager,
+                new SimpleMeterRegistry(), 200, Duration.ofSeconds(1), Duration.ofSeconds(1), Duration.ofMinutes(1), false);
+
+        assertThat(first.dispatchOnce()).isEqualTo(1);
+        assertThat(seenByOther).containsExactly(0);
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+}
@@ -0,0 +1,85 @@
+package lk.bookrental.backend.overdue;
+
+import lk.bookrental.backend.dto.request.BookRequest;
+import lk.bookrental.backend.dto.request.RentalRequest;
+import lk.bookrental.backend.dto.response.RentalResponse;
+import lk.bookrental.backend.repository.BookRepository;
+import lk.bookrental.backend.repository.RentalRepository;
+import lk.bookrental.backend.service.BookService;
+import lk.bookrental.backend.service.RentalService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "bookrental.overdue.page-size=2")
+class OverdueRentalScannerTest {
+
+    @Autowired
+    private OverdueRentalScanner scanner;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private RentalService rentalService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private RentalRepository rentalRepository;
+
+    @AfterEach
+    void cleanup() {
+        rentalRepository.deleteAll();
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    void scan_flagsOpenRentalsPastTheirDueDate_acrossPages_once() {
+        LocalDate today = LocalDate.now();
+        Long overdue1 = rent("alice", today.minusDays(20), today.minusDays(6));
+        Long overdue2 = rent("bob", today.minusDays(20), today.minusDays(3));
+        Long overdue3 = rent("carol", today.minusDays(20), today.minusDays(3));
+        Long returned = rent("dave", today.minusDays(20), today.minusDays(5));
+        rentalService.updateRental(returned, new RentalRequest(null, null, today.minusDays(1), null));
+        Long dueToday = rent("erin", today.minusDays(14), today);
+
+        assertThat(scanner.scan(today)).isEqualTo(3);
+        assertThat(scanner.scan(today)).isZero();
+
+        assertThat(rentalService.getRentalById(overdue1, false).getOverdueSince()).isEqualTo(today);
+        assertThat(rentalService.getRentalById(returned, false).getOverdueSince()).isNull();
+        assertThat(rentalService.getRentalById(dueToday, false).getOverdueSince()).isNull();
+
+        // oldest due date first, then id, resumed from the last item of the previous page
+        List<RentalResponse> first = rentalService.getOverdueRentals(null, null, 2);
+        assertThat(first).extracting(RentalResponse::getId).containsExactly(overdue1, overdue2);
+        RentalResponse last = first.get(1);
+        List<RentalResponse> second = rentalService.getOverdueRentals(last.getDueDate(), last.getId(), 2);
+        assertThat(second).extracting(RentalResponse::getId).containsExactly(overdue3);
+    }
+
+    @Test
+    void extendingTheDueDate_clearsTheFlag() {
+        LocalDate today = LocalDate.now();
+        Long id = rent("alice", today.minusDays(20), today.minusDays(6));
+        scanner.scan(today);
+
+        RentalResponse extended = rentalService.updateRental(id, new RentalRequest(null, null, null, null, today.plusDays(7)));
+
+        assertThat(extended.getOverdueSince()).isNull();
+        assertThat(rentalService.getOverdueRentals(null, null, null)).isEmpty();
+    }
+
+    private Long rent(String username, LocalDate rentalDate, LocalDate dueDate) {
+        Long bookId = bookService.createBook(new BookRequest("Book " + username, "A", "G", null)).getId();
+        return rentalService.createRental(new RentalRequest(username, rentalDate, null, bookId, dueDate)).getId();
+    }
+}
@@ -0,0 +1,104 @@
+package lk.bookrental.backend.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lk.bookrental.backend.dto.response.RentalResponse;
+import lk.bookrental.backend.model.AvailabilityStatus;
+import lk.bookrental.backend.model.Book;
+import lk.bookrental.backend.model.Rental;
+import lk.bookrental.backend.sync.ChangeVersions;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(ChangeVersions.class)
+class RentalRepositoryTest {
+
+    @Autowired
+    private RentalRepository rentalRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setup() {
+        for (int i = 0; i < 5; i++) {
+            Book book = bookRepository.save(Book.builder().title("Title " + i).author("Author " + i).genre("G")
+                    .availabilityStatus(AvailabilityStatus.AVAILABLE).build());
+            for (int j = 0; j < 4; j++) {
+                rentalRepository.save(Rental.builder().username("user" + j).rentalDate(LocalDate.now()).book(book).build());
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findAllResponses_loadsRentalsAndBooksInOneQuery() {
+        List<RentalResponse> rentals = rentalRepository.findAllResponses();
+
+        assertThat(rentals).hasSize(20);
+        assertThat(rentals).allSatisfy(r -> assertThat(r.getBook().getTitle()).startsWith("Title "));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void findResponseById_loadsRentalAndBookInOneQuery() {
+        Long id = rentalRepository.findAllResponses().get(7).getId();
+        statistics.clear();
+
+        RentalResponse rental = rentalRepository.findResponseById(id).orElseThrow();
+
+        assertThat(rental.getBook().getAuthor()).isEqualTo("Author 1");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void findUserHistory_pagesNewestFirst_andCountsActiveRentals() {
+        Book book = bookRepository.findAll().get(0);
+        LocalDate today = LocalDate.now();
+        Rental older = rentalRepository.save(Rental.builder().username("zoe").rentalDate(today.minusDays(9))
+                .returnDate(today.minusDays(2)).book(book).build());
+        Rental middle = rentalRepository.save(Rental.builder().username("zoe").rentalDate(today.minusDays(3)).book(book).build());
+        Rental newest = rentalRepository.save(Rental.builder().username("zoe").rentalDate(today.minusDays(1)).book(book).build());
+        entityManager.flush();
+
+        List<RentalResponse> first = rentalRepository.findUserHistory("zoe", false, null, Long.MAX_VALUE, Limit.of(2));
+        assertThat(first).extracting(RentalResponse::getId).containsExactly(newest.getId(), middle.getId());
+        RentalResponse last = first.get(1);
+        assertThat(rentalRepository.findUserHistory("zoe", false, last.getRentalDate(), last.getId(), Limit.of(2)))
+                .extracting(RentalResponse::getId).containsExactly(older.getId());
+        assertThat(rentalRepository.findUserHistory("zoe", true, null, Long.MAX_VALUE, Limit.of(10)))
+                .extracting(RentalResponse::getId).containsExactly(newest.getId(), middle.getId());
+
+        assertThat(rentalRepository.countByUsernameAndReturnDateIsNull("zoe")).isEqualTo(2);
+        assertThat(rentalRepository.countActiveByUsernameIn(List.of("zoe", "user0")))
+                .extracting(KeyCount::getKey, KeyCount::getCount)
+                .containsExactlyInAnyOrder(tuple("zoe", 2L), tuple("user0", 5L));
+    }
+}
@@ -0,0 +1,42 @@
+package lk.bookrental.backend.repository;
+
+import lk.bookrental.backend.model.AvailabilityStatus;
+import lk.bookrental.backend.model.Book;
+import lk.bookrental.backend.model.Rental;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// the prod profile builds the schema from db/migration and validates it, so a drift between migrations and
+// entities fails the context here rather than at deploy time
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:migrated;MODE=MySQL;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("prod")
+class SchemaMigrationTest {
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private RentalRepository rentalRepository;
+
+    @Test
+    void migratedSchema_matchesTheEntities() {
+        assertThat(flyway.info().current().getVersion().getVersion()).isEqualTo("5");
+        assertThat(flyway.info().pending()).isEmpty();
+
+        Book book = bookRepository.save(Book.builder().title("Dune").author("Frank Herbert").genre("Sci-Fi")
+                .availabilityStatus(AvailabilityStatus.AVAILABLE).build());
+        rentalRepository.save(Rental.builder().username("alice").rentalDate(LocalDate.of(2024, 1, 1)).book(book).build());
+
+        assertThat(rentalRepository.count()).isEqualTo(1);
+    }
+}
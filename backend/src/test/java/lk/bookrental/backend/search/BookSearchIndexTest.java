@@ -0,0 +1,130 @@
+package lk.bookrental.backend.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookSearchIndexTest {
+
+    private BookSearchIndex index;
+
+    @BeforeEach
+    void setup() {
+        index = new BookSearchIndex();
+        index.index(1L, "Dune", "Frank Herbert", "Sci-Fi");
+        index.index(2L, "Children of Dune", "Frank Herbert", "Sci-Fi");
+        index.index(3L, "The Dunwich Horror", "H. P. Lovecraft", "Horror");
+        index.index(4L, "Frankenstein", "Mary Shelley", "Horror");
+        index.index(5L, "Cien años de soledad", "Gabriel García Márquez", "Fiction");
+        index.index(6L, "Shelley: A Life", "Fiona Sampson", "Biography");
+    }
+
+    @Test
+    void search_ranksExactTitleMatchesAbovePrefixMatches() {
+        assertThat(index.search("dun", 10)).containsExactly(1L, 2L, 3L);
+        assertThat(index.search("dune", 10)).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void search_ranksTitleMatchesAboveAuthorMatches() {
+        assertThat(index.search("shelley", 10)).containsExactly(6L, 4L);
+        // an exact author token still beats a title prefix
+        assertThat(index.search("frank", 10)).containsExactly(1L, 2L, 4L);
+    }
+
+    @Test
+    void search_requiresEveryQueryToken() {
+        assertThat(index.search("dune children", 10)).containsExactly(2L);
+        assertThat(index.search("herbert horror", 10)).isEmpty();
+    }
+
+    @Test
+    void search_matchesGenreOnlyOnWholeTokens() {
+        assertThat(index.search("horror", 10)).containsExactly(3L, 4L);
+        assertThat(index.search("horr", 10)).containsExactly(3L);
+    }
+
+    @Test
+    void search_ignoresCaseAndAccents() {
+        assertThat(index.search("GARCIA marq", 10)).containsExactly(5L);
+        assertThat(index.search("anos", 10)).containsExactly(5L);
+    }
+
+    @Test
+    void search_respectsLimit() {
+        assertThat(index.search("dun", 2)).containsExactly(1L, 2L);
+        assertThat(index.search("  ", 10)).isEmpty();
+    }
+
+    @Test
+    void index_replacesPreviousVersionAndRemoveDropsBook() {
+        index.index(1L, "Dune Messiah", "Frank Herbert", "Sci-Fi");
+        assertThat(index.search("messiah", 10)).containsExactly(1L);
+        assertThat(index.search("dune", 10)).containsExactly(1L, 2L);
+
+        index.remove(2L);
+        assertThat(index.search("dune", 10)).containsExactly(1L);
+        assertThat(index.size()).isEqualTo(5);
+    }
+
+    @Test
+    void index_staysCorrectAcrossCompaction() {
+        for (int round = 0; round < 5; round++) {
+            for (long id = 100; id < 1100; id++) {
+                index.index(id, "Volume " + id + " round" + round, "Anon", "Archive");
+            }
+        }
+        assertThat(index.search("round4 volume", 2000)).hasSize(1000);
+        assertThat(index.search("round3", 10)).isEmpty();
+        assertThat(index.search("dune", 10)).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void index_keepsTheOrdinalWhenTheTokensDidNotChange() {
+        int used = index.ordinalsUsed();
+        // e.g. a checkout: the book row changed, its title, author and genre did not
+        for (int i = 0; i < 100; i++) {
+            index.index(1L, "Dune", "Frank Herbert", "Sci-Fi");
+        }
+        assertThat(index.ordinalsUsed()).isEqualTo(used);
+
+        index.index(1L, "Dune", "Frank Herbert", "Science Fiction");
+        assertThat(index.ordinalsUsed()).isEqualTo(used + 1);
+        assertThat(index.search("science", 10)).containsExactly(1L);
+    }
+
+    @Test
+    void search_keepsTheBestResultsOfACommonToken() {
+        for (long id = 1000; id > 100; id--) {
+            index.index(id, "Volume " + id, id % 2 == 0 ? "Anon" : "Volume Press", "Archive");
+        }
+        index.index(50L, "Unrelated", "Volume Press", "Archive");
+        // exact title matches first, by id; odd ids also match the author, which does not add to a title match
+        assertThat(index.search("volume", 3)).containsExactly(101L, 102L, 103L);
+        assertThat(index.search("vol", 3)).containsExactly(101L, 102L, 103L);
+        assertThat(index.search("volume press", 2)).containsExactly(101L, 103L);
+        assertThat(index.search("volume", 2000)).hasSize(901).endsWith(50L);
+    }
+
+    @Test
+    void search_keepsSingleWordResultsInStepWithWrites() {
+        for (long id = 1; id <= 300; id++) {
+            index.index(id, id % 3 == 0 ? "Shade " + id : "Shadow " + id, "Anon", "Fiction");
+        }
+        assertThat(index.search("shadow", 3)).containsExactly(1L, 2L, 4L);
+        assertThat(index.search("sha", 3)).containsExactly(1L, 2L, 3L);
+
+        // more deletes than a term keeps leaders for, so they have to be rebuilt from the postings
+        for (long id = 1; id <= 200; id++) {
+            index.remove(id);
+        }
+        assertThat(index.search("shadow", 3)).containsExactly(202L, 203L, 205L);
+        assertThat(index.search("sha", 3)).containsExactly(201L, 202L, 203L);
+
+        index.index(7L, "Shadow Shade", "Anon", "Fiction");
+        index.index(202L, "Bright", "Anon", "Fiction");
+        assertThat(index.search("shadow", 3)).containsExactly(7L, 203L, 205L);
+        assertThat(index.search("sha", 3)).containsExactly(7L, 201L, 203L);
+    }
+}
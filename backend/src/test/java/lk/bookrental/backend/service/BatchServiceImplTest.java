@@ -0,0 +1,118 @@
+package lk.bookrental.backend.service;
+
+import lk.bookrental.backend.dto.request.BookBatchItem;
+import lk.bookrental.backend.dto.request.RentalBatchItem;
+import lk.bookrental.backend.dto.response.BatchItemResult;
+import lk.bookrental.backend.dto.response.BatchItemStatus;
+import lk.bookrental.backend.dto.response.BatchResponse;
+import lk.bookrental.backend.dto.response.BookResponse;
+import lk.bookrental.backend.dto.response.RentalResponse;
+import lk.bookrental.backend.model.AvailabilityStatus;
+import lk.bookrental.backend.repository.BookRepository;
+import lk.bookrental.backend.repository.RentalRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {"bookrental.batch.chunk-size=3", "bookrental.batch.max-items=20",
+        "bookrental.rentals.max-active-per-user=1"})
+class BatchServiceImplTest {
+
+    @Autowired
+    private BatchService batchService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private RentalRepository rentalRepository;
+
+    @AfterEach
+    void cleanup() {
+        rentalRepository.deleteAll();
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    void saveBooks_reportsPerItemOutcomesAcrossChunks() {
+        Long existingId = batchService.saveBooks(List.of(new BookBatchItem(null, "Old", "A", "G", null)))
+                .getResults().get(0).getItem().getId();
+
+        BatchResponse<BookResponse> response = batchService.saveBooks(List.of(
+                new BookBatchItem(null, "Dune", "Frank Herbert", "Sci-Fi", null),
+                new BookBatchItem(null, "", "Nobody", "G", null),
+                new BookBatchItem(existingId, "New", "A", "G", AvailabilityStatus.UNAVAILABLE),
+                new BookBatchItem(999_999L, "Ghost", "A", "G", null),
+                new BookBatchItem(null, "Emma", "Jane Austen", "Classic", null)));
+
+        assertThat(response.getSucceeded()).isEqualTo(3);
+        assertThat(response.getFailed()).isEqualTo(2);
+        assertThat(response.getResults()).extracting(BatchItemResult::getIndex).containsExactly(0, 1, 2, 3, 4);
+        assertThat(response.getResults()).extracting(BatchItemResult::getStatus).containsExactly(
+                BatchItemStatus.CREATED, BatchItemStatus.FAILED, BatchItemStatus.UPDATED, BatchItemStatus.FAILED, BatchItemStatus.CREATED);
+        assertThat(response.getResults().get(0).getItem().getAvailabilityStatus()).isEqualTo(AvailabilityStatus.AVAILABLE);
+        assertThat(response.getResults().get(3).getError()).isEqualTo("Book not found");
+        assertThat(bookRepository.findById(existingId).orElseThrow().getTitle()).isEqualTo("New");
+        assertThat(bookRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    void saveRentals_claimsEachBookOnce_andReturnsBeforeCheckouts() {
+        List<Long> bookIds = new ArrayList<>();
+        for (BatchItemResult<BookResponse> result : batchService.saveBooks(List.of(
+                new BookBatchItem(null, "One", "A", "G", null),
+                new BookBatchItem(null, "Two", "A", "G", null))).getResults()) {
+            bookIds.add(result.getItem().getId());
+        }
+        Long firstRentalId = batchService.saveRentals(List.of(new RentalBatchItem(null, "alice", LocalDate.now(), null, bookIds.get(0))))
+                .getResults().get(0).getItem().getId();
+
+        BatchResponse<RentalResponse> response = batchService.saveRentals(List.of(
+                new RentalBatchItem(null, "bob", LocalDate.now(), null, bookIds.get(0)),
+                new RentalBatchItem(firstRentalId, null, null, LocalDate.now(), null),
+                new RentalBatchItem(null, "carol", LocalDate.now(), null, bookIds.get(1)),
+                new RentalBatchItem(null, "dave", LocalDate.now(), null, bookIds.get(1))));
+
+        assertThat(response.getResults()).extracting(BatchItemResult::getStatus).containsExactly(
+                BatchItemStatus.CREATED, BatchItemStatus.UPDATED, BatchItemStatus.CREATED, BatchItemStatus.FAILED);
+        assertThat(response.getResults().get(3).getError()).isEqualTo("Book is not available for rental");
+        assertThat(rentalRepository.count()).isEqualTo(3);
+        assertThat(bookRepository.findAll()).extracting(b -> b.getAvailabilityStatus())
+                .containsOnly(AvailabilityStatus.UNAVAILABLE);
+    }
+
+    @Test
+    void saveRentals_enforcesThePerUserLimit_countingEarlierItemsInTheBatch() {
+        List<Long> bookIds = new ArrayList<>();
+        for (BatchItemResult<BookResponse> result : batchService.saveBooks(List.of(
+                new BookBatchItem(null, "One", "A", "G", null),
+                new BookBatchItem(null, "Two", "A", "G", null))).getResults()) {
+            bookIds.add(result.getItem().getId());
+        }
+
+        BatchResponse<RentalResponse> response = batchService.saveRentals(List.of(
+                new RentalBatchItem(null, "erin", LocalDate.now(), null, bookIds.get(0)),
+                new RentalBatchItem(null, "erin", LocalDate.now(), null, bookIds.get(1))));
+
+        assertThat(response.getResults()).extracting(BatchItemResult::getStatus)
+                .containsExactly(BatchItemStatus.CREATED, BatchItemStatus.FAILED);
+        assertThat(response.getResults().get(1).getError()).isEqualTo("User already has 1 active rentals");
+    }
+
+    @Test
+    void saveBooks_rejectsOversizedBatch() {
+        List<BookBatchItem> items = new ArrayList<>();
+        for (int i = 0; i < 21; i++) {
+            items.add(new BookBatchItem(null, "T" + i, "A", "G", null));
+        }
+        assertThrows(IllegalArgumentException.class, () -> batchService.saveBooks(items));
+    }
+}
@@ -0,0 +1,86 @@
+package lk.bookrental.backend.service;
+
+import lk.bookrental.backend.dto.request.BookRequest;
+import lk.bookrental.backend.dto.request.RentalRequest;
+import lk.bookrental.backend.dto.response.BookResponse;
+import lk.bookrental.backend.dto.response.CacheStatsResponse;
+import lk.bookrental.backend.model.AvailabilityStatus;
+import lk.bookrental.backend.repository.BookRepository;
+import lk.bookrental.backend.repository.RentalRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+class BookCachingTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private RentalService rentalService;
+
+    @Autowired
+    private CacheStatsService cacheStatsService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private RentalRepository rentalRepository;
+
+    @MockitoSpyBean
+    private BookRepository bookRepository;
+
+    @BeforeEach
+    void setup() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @AfterEach
+    void cleanup() {
+        rentalRepository.deleteAll();
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    void getBookById_isServedFromCacheUntilUpdated() {
+        Long id = bookService.createBook(new BookRequest("Dune", "Frank Herbert", "Sci-Fi", null)).getId();
+        clearInvocations(bookRepository);
+
+        bookService.getBookById(id);
+        bookService.getBookById(id);
+        verify(bookRepository, times(1)).findById(id);
+
+        bookService.updateBook(id, new BookRequest("Dune Messiah", "Frank Herbert", "Sci-Fi", null));
+        assertThat(bookService.getBookById(id).getTitle()).isEqualTo("Dune Messiah");
+
+        CacheStatsResponse stats = cacheStatsService.getCacheStats().stream()
+                .filter(s -> s.getName().equals("books")).findFirst().orElseThrow();
+        assertThat(stats.getHits()).isEqualTo(1);
+        assertThat(stats.getMisses()).isEqualTo(2);
+    }
+
+    @Test
+    void checkout_evictsCachedBookAndListing() {
+        Long id = bookService.createBook(new BookRequest("Dune", "Frank Herbert", "Sci-Fi", null)).getId();
+        assertThat(bookService.getBookById(id).getAvailabilityStatus()).isEqualTo(AvailabilityStatus.AVAILABLE);
+        assertThat(bookService.getAllBooks()).extracting(BookResponse::getAvailabilityStatus).containsExactly(AvailabilityStatus.AVAILABLE);
+
+        rentalService.createRental(new RentalRequest("user", LocalDate.now(), null, id));
+
+        assertThat(bookService.getBookById(id).getAvailabilityStatus()).isEqualTo(AvailabilityStatus.UNAVAILABLE);
+        assertThat(bookService.getAllBooks()).extracting(BookResponse::getAvailabilityStatus).containsExactly(AvailabilityStatus.UNAVAILABLE);
+    }
+}
@@ -0,0 +1,109 @@
+package lk.bookrental.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lk.bookrental.backend.dto.response.BatchResponse;
+import lk.bookrental.backend.dto.response.ImportJobResponse;
+import lk.bookrental.backend.dto.response.ImportStatus;
+import lk.bookrental.backend.service.impl.BookImportServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookImportServiceImplTest {
+
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
+    @Mock
+    private BatchService batchService;
+
+    private BookImportServiceImpl importService;
+    private List<Path> spooledBefore;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        importService = new BookImportServiceImpl(batchService, new ObjectMapper(), 500, 1, 10);
+        spooledBefore = spoolFiles();
+    }
+
+    @AfterEach
+    void tearDown() {
+        importService.shutdown();
+    }
+
+    @Test
+    void startImport_deletesThePartialSpoolFileWhenTheUploadBreaksOff() throws IOException {
+        InputStream aborted = new InputStream() {
+            private int sent;
+
+            @Override
+            public int read() throws IOException {
+                if (sent++ < 100) {
+                    return 'x';
+                }
+                throw new IOException("client went away");
+            }
+        };
+
+        assertThrows(UncheckedIOException.class, () -> importService.startImport(aborted, CSV));
+        assertThat(spoolFiles()).isEqualTo(spooledBefore);
+    }
+
+    @Test
+    void shutdown_deletesTheSpoolFilesOfQueuedImports() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(batchService.saveBooks(anyList())).thenAnswer(invocation -> {
+            running.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return BatchResponse.builder().results(List.of()).build();
+        });
+        ImportJobResponse first = importService.startImport(csv(), CSV);
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+        ImportJobResponse queued = importService.startImport(csv(), CSV);
+        assertThat(importService.getImport(queued.getId()).getStatus()).isEqualTo(ImportStatus.QUEUED);
+
+        importService.shutdown();
+        release.countDown();
+
+        // the running import removes its own file once it stops; the queued one never ran
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!spoolFiles().equals(spooledBefore) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(spoolFiles()).isEqualTo(spooledBefore);
+        assertThat(first.getId()).isNotEqualTo(queued.getId());
+    }
+
+    private static InputStream csv() {
+        return new ByteArrayInputStream("title,author,genre,availabilityStatus\nDune,Frank Herbert,Sci-Fi,\n"
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<Path> spoolFiles() throws IOException {
+        try (Stream<Path> files = Files.list(Path.of(System.getProperty("java.io.tmpdir")))) {
+            return files.filter(file -> file.getFileName().toString().startsWith("book-import-")).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package lk.bookrental.backend.service;
+
+import lk.bookrental.backend.dto.request.BookBatchItem;
+import lk.bookrental.backend.dto.request.BookRequest;
+import lk.bookrental.backend.dto.response.BatchResponse;
+import lk.bookrental.backend.dto.response.BookResponse;
+import lk.bookrental.backend.repository.BookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// run with ./mvnw test -Pbenchmark; compares 10k single creates with the same rows through the batch path
+@Tag("benchmark")
+@SpringBootTest(properties = "bookrental.batch.max-items=10000")
+class BookInsertBenchmarkTest {
+
+    private static final int ROWS = 10_000;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BatchService batchService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @AfterEach
+    void cleanup() {
+        bookRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void singleInsertsVersusBatch() {
+        // warm up both paths so the comparison is not dominated by class loading and JIT
+        for (int i = 0; i < 500; i++) {
+            bookService.createBook(new BookRequest("Warmup " + i, "Author", "Genre", null));
+        }
+        batchService.saveBooks(items(500));
+        bookRepository.deleteAllInBatch();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ROWS; i++) {
+            bookService.createBook(new BookRequest("Title " + i, "Author " + (i % 100), "Genre " + (i % 10), null));
+        }
+        long singleMillis = (System.nanoTime() - start) / 1_000_000;
+        assertThat(bookRepository.count()).isEqualTo(ROWS);
+        bookRepository.deleteAllInBatch();
+
+        start = System.nanoTime();
+        BatchResponse<BookResponse> response = batchService.saveBooks(items(ROWS));
+        long batchMillis = (System.nanoTime() - start) / 1_000_000;
+        assertThat(response.getSucceeded()).isEqualTo(ROWS);
+        assertThat(bookRepository.count()).isEqualTo(ROWS);
+
+        System.out.printf("%d single inserts: %d ms, batch path: %d ms (%.1fx)%n",
+                ROWS, singleMillis, batchMillis, (double) singleMillis / Math.max(1, batchMillis));
+    }
+
+    private static List<BookBatchItem> items(int count) {
+        List<BookBatchItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(new BookBatchItem(null, "Title " + i, "Author " + (i % 100), "Genre " + (i % 10), null));
+        }
+        return items;
+    }
+}
@@ -1,11 +1,14 @@
 package lk.bookrental.backend.service;
 
 import jakarta.persistence.EntityNotFoundException;
+import lk.bookrental.backend.dto.request.BookPageRequest;
 import lk.bookrental.backend.dto.request.BookRequest;
 import lk.bookrental.backend.dto.response.BookResponse;
+import lk.bookrental.backend.dto.response.CursorPageResponse;
 import lk.bookrental.backend.model.AvailabilityStatus;
 import lk.bookrental.backend.model.Book;
 import lk.bookrental.backend.repository.BookRepository;
+import lk.bookrental.backend.search.BookSearchIndex;
 import lk.bookrental.backend.service.impl.BookServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,7 +17,10 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -27,6 +33,12 @@ class BookServiceImplTest {
     @Mock
     private BookRepository bookRepository;
 
+    @Mock
+    private BookSearchIndex searchIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private BookServiceImpl bookService;
 
@@ -103,6 +115,43 @@ class BookServiceImplTest {
         assertThrows(EntityNotFoundException.class, () -> bookService.deleteBook(99L));
         verify(bookRepository, never()).deleteById(anyLong());
     }
-}
 
+    @Test
+    void getBookPage_returnsNextCursorWhenMoreRowsExist() {
+        List<Book> rows = List.of(
+                Book.builder().id(11L).title("A").author("X").genre("Sci-Fi").availabilityStatus(AvailabilityStatus.AVAILABLE).build(),
+                Book.builder().id(12L).title("B").author("X").genre("Sci-Fi").availabilityStatus(AvailabilityStatus.AVAILABLE).build(),
+                Book.builder().id(15L).title("C").author("X").genre("Sci-Fi").availabilityStatus(AvailabilityStatus.AVAILABLE).build());
+        when(bookRepository.findPage(10L, "Sci-Fi", null, AvailabilityStatus.AVAILABLE, Limit.of(3))).thenReturn(rows);
+
+        CursorPageResponse<BookResponse> page = bookService.getBookPage(
+                new BookPageRequest("Sci-Fi", null, AvailabilityStatus.AVAILABLE, 10L, 2));
+
+        assertThat(page.getItems()).extracting(BookResponse::getId).containsExactly(11L, 12L);
+        assertThat(page.getNextCursor()).isEqualTo(12L);
+    }
+
+    @Test
+    void getBookPage_lastPageHasNoCursor_andLimitIsCapped() {
+        when(bookRepository.findPage(0L, null, null, null, Limit.of(501))).thenReturn(List.of(
+                Book.builder().id(1L).title("A").author("X").genre("G").availabilityStatus(AvailabilityStatus.AVAILABLE).build()));
 
+        CursorPageResponse<BookResponse> page = bookService.getBookPage(new BookPageRequest(null, null, null, null, 10_000));
+
+        assertThat(page.getItems()).hasSize(1);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void searchBooks_returnsBooksInIndexRankOrder() {
+        when(searchIndex.search("dune", 20)).thenReturn(List.of(2L, 1L, 3L));
+        // the repository returns rows in id order, and book 3 was deleted after the index ranked it
+        when(bookRepository.findAllById(List.of(2L, 1L, 3L))).thenReturn(List.of(
+                Book.builder().id(1L).title("Dune Messiah").author("Frank Herbert").genre("Sci-Fi").build(),
+                Book.builder().id(2L).title("Dune").author("Frank Herbert").genre("Sci-Fi").build()));
+
+        List<BookResponse> results = bookService.searchBooks("dune", null);
+
+        assertThat(results).extracting(BookResponse::getId).containsExactly(2L, 1L);
+    }
+}
@@ -0,0 +1,155 @@
+package lk.bookrental.backend.service;
+
+import lk.bookrental.backend.dto.request.RentalBatchItem;
+import lk.bookrental.backend.dto.request.RentalRequest;
+import lk.bookrental.backend.dto.response.BatchItemResult;
+import lk.bookrental.backend.dto.response.BatchItemStatus;
+import lk.bookrental.backend.dto.response.RentalResponse;
+import lk.bookrental.backend.model.AvailabilityStatus;
+import lk.bookrental.backend.model.Book;
+import lk.bookrental.backend.repository.BookRepository;
+import lk.bookrental.backend.repository.RentalRepository;
+import lk.bookrental.backend.repository.UserCheckoutLockRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "bookrental.rentals.max-active-per-user=3")
+class RentalCheckoutConcurrencyTest {
+
+    private static final int THREADS = 200;
+
+    @Autowired
+    private RentalService rentalService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private RentalRepository rentalRepository;
+
+    @Autowired
+    private BatchService batchService;
+
+    @Autowired
+    private UserCheckoutLockRepository userCheckoutLockRepository;
+
+    @AfterEach
+    void cleanup() {
+        rentalRepository.deleteAll();
+        bookRepository.deleteAll();
+        userCheckoutLockRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentCheckoutsOfOneBook_exactlyOneWins() throws Exception {
+        Long bookId = newBook("Dune").getId();
+
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        runConcurrently(THREADS, i -> {
+            try {
+                rentalService.createRental(new RentalRequest("user" + i, LocalDate.now(), null, bookId));
+                succeeded.incrementAndGet();
+            } catch (IllegalStateException e) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        assertThat(succeeded.get()).isEqualTo(1);
+        assertThat(rejected.get()).isEqualTo(THREADS - 1);
+        assertThat(rentalRepository.count()).isEqualTo(1);
+        assertThat(bookRepository.findById(bookId).orElseThrow().getAvailabilityStatus()).isEqualTo(AvailabilityStatus.UNAVAILABLE);
+    }
+
+    @Test
+    void concurrentCheckoutsOfDifferentBooks_allSucceed() throws Exception {
+        List<Long> bookIds = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            bookIds.add(newBook("Book " + i).getId());
+        }
+
+        AtomicInteger succeeded = new AtomicInteger();
+        runConcurrently(bookIds.size(), i -> {
+            rentalService.createRental(new RentalRequest("user" + i, LocalDate.now(), null, bookIds.get(i)));
+            succeeded.incrementAndGet();
+        });
+
+        assertThat(succeeded.get()).isEqualTo(bookIds.size());
+        assertThat(rentalRepository.count()).isEqualTo(bookIds.size());
+    }
+
+    @Test
+    void concurrentCheckoutsByOneNewUser_stopAtTheActiveRentalLimit() throws Exception {
+        List<Long> bookIds = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            bookIds.add(newBook("Book " + i).getId());
+        }
+
+        // the user has no rentals and no lock row yet, so every checkout races to create it
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        runConcurrently(bookIds.size(), i -> {
+            try {
+                if (i % 2 == 0) {
+                    rentalService.createRental(new RentalRequest("zoe", LocalDate.now(), null, bookIds.get(i)));
+                    succeeded.incrementAndGet();
+                } else {
+                    BatchItemResult<RentalResponse> result = batchService.saveRentals(List.of(
+                            new RentalBatchItem(null, "zoe", LocalDate.now(), null, bookIds.get(i), null))).getResults().get(0);
+                    (result.getStatus() == BatchItemStatus.CREATED ? succeeded : rejected).incrementAndGet();
+                }
+            } catch (IllegalStateException e) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        assertThat(succeeded.get()).isEqualTo(3);
+        assertThat(rejected.get()).isEqualTo(bookIds.size() - 3);
+        assertThat(rentalRepository.countByUsernameAndReturnDateIsNull("zoe")).isEqualTo(3);
+    }
+
+    private Book newBook(String title) {
+        return bookRepository.save(Book.builder().title(title).author("Author").genre("Genre")
+                .availabilityStatus(AvailabilityStatus.AVAILABLE).build());
+    }
+
+    private void runConcurrently(int threads, IndexedTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run(index);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private interface IndexedTask {
+        void run(int index);
+    }
+}
@@ -1,19 +1,25 @@
 package lk.bookrental.backend.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
 import lk.bookrental.backend.dto.request.RentalRequest;
 import lk.bookrental.backend.dto.response.RentalResponse;
+import lk.bookrental.backend.event.BookAvailabilityChangedEvent;
 import lk.bookrental.backend.model.AvailabilityStatus;
 import lk.bookrental.backend.model.Book;
 import lk.bookrental.backend.model.Rental;
+import lk.bookrental.backend.repository.ArchivedRentalRepository;
 import lk.bookrental.backend.repository.BookRepository;
 import lk.bookrental.backend.repository.RentalRepository;
+import lk.bookrental.backend.repository.UserCheckoutLockRepository;
 import lk.bookrental.backend.service.impl.RentalServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
 import java.time.LocalDate;
 import java.util.Optional;
@@ -28,16 +34,33 @@ class RentalServiceImplTest {
     @Mock
     private RentalRepository rentalRepository;
 
+    @Mock
+    private ArchivedRentalRepository archivedRentalRepository;
+
     @Mock
     private BookRepository bookRepository;
 
-    @InjectMocks
+    @Mock
+    private UserCheckoutLockRepository userCheckoutLockRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private SimpleMeterRegistry meterRegistry;
+
     private RentalServiceImpl rentalService;
 
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        rentalService = new RentalServiceImpl(rentalRepository, archivedRentalRepository, bookRepository, userCheckoutLockRepository,
+                eventPublisher, meterRegistry, 14, 2);
+    }
+
     @Test
     void createRental_marksBookUnavailable_andThrowsIfAlreadyUnavailable() {
-        Book availableBook = Book.builder().id(1L).title("Dune").author("Frank Herbert").genre("Sci-Fi").availabilityStatus(AvailabilityStatus.AVAILABLE).build();
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(availableBook));
+        Book book = Book.builder().id(1L).title("Dune").author("Frank Herbert").genre("Sci-Fi").availabilityStatus(AvailabilityStatus.AVAILABLE).build();
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
         when(rentalRepository.save(any(Rental.class))).thenAnswer(invocation -> {
             Rental r = invocation.getArgument(0);
             r.setId(10L);
@@ -48,9 +71,12 @@ class RentalServiceImplTest {
         RentalResponse created = rentalService.createRental(request);
 
         assertThat(created.getBook().getAvailabilityStatus()).isEqualTo(AvailabilityStatus.UNAVAILABLE);
-        assertThat(availableBook.getAvailabilityStatus()).isEqualTo(AvailabilityStatus.UNAVAILABLE);
+        assertThat(created.getDueDate()).isEqualTo(request.getRentalDate().plusDays(14));
 
         assertThrows(IllegalStateException.class, () -> rentalService.createRental(request));
+        verify(rentalRepository, times(1)).save(any(Rental.class));
+        verify(eventPublisher, times(1)).publishEvent(new BookAvailabilityChangedEvent(1L));
+        assertThat(meterRegistry.get("bookrental.rentals.checkout.conflicts").counter().count()).isEqualTo(1);
     }
 
     @Test
@@ -68,6 +94,20 @@ class RentalServiceImplTest {
         assertThat(book.getAvailabilityStatus()).isEqualTo(AvailabilityStatus.AVAILABLE);
     }
 
+    @Test
+    void updateRental_ofAlreadyReturnedRental_leavesBookAvailabilityAlone() {
+        Book book = Book.builder().id(4L).title("B").author("A").genre("G").availabilityStatus(AvailabilityStatus.UNAVAILABLE).build();
+        Rental rental = Rental.builder().id(40L).username("user").rentalDate(LocalDate.now().minusDays(5))
+                .returnDate(LocalDate.now().minusDays(1)).book(book).build();
+        when(rentalRepository.findById(40L)).thenReturn(Optional.of(rental));
+        when(rentalRepository.save(any(Rental.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        rentalService.updateRental(40L, new RentalRequest(null, null, LocalDate.now(), null));
+
+        assertThat(book.getAvailabilityStatus()).isEqualTo(AvailabilityStatus.UNAVAILABLE);
+        verify(bookRepository, never()).save(any(Book.class));
+    }
+
     @Test
     void deleteRental_ofActiveRental_marksBookAvailable() {
         Book book = Book.builder().id(3L).title("B").author("A").genre("G").availabilityStatus(AvailabilityStatus.UNAVAILABLE).build();
@@ -79,6 +119,7 @@ class RentalServiceImplTest {
         assertThat(book.getAvailabilityStatus()).isEqualTo(AvailabilityStatus.AVAILABLE);
         verify(rentalRepository).deleteById(30L);
         verify(bookRepository).save(book);
+        verify(eventPublisher).publishEvent(new BookAvailabilityChangedEvent(3L));
     }
 
     @Test
@@ -86,7 +127,35 @@ class RentalServiceImplTest {
         when(bookRepository.findById(999L)).thenReturn(Optional.empty());
         RentalRequest req = new RentalRequest("user", LocalDate.now(), null, 999L);
         assertThrows(EntityNotFoundException.class, () -> rentalService.createRental(req));
+        assertThat(meterRegistry.get("bookrental.rentals.checkout.conflicts").counter().count()).isZero();
+    }
+
+    @Test
+    void createRental_rejectsDueDateBeforeRentalDate() {
+        RentalRequest req = new RentalRequest("user", LocalDate.now(), null, 1L, LocalDate.now().minusDays(1));
+        assertThrows(IllegalArgumentException.class, () -> rentalService.createRental(req));
+        verifyNoInteractions(bookRepository);
     }
-}
 
+    @Test
+    void createRental_refusesUsersAtTheirActiveRentalLimit() {
+        when(rentalRepository.countByUsernameAndReturnDateIsNull("user")).thenReturn(2L);
+        RentalRequest req = new RentalRequest("user", LocalDate.now(), null, 1L);
+
+        assertThrows(IllegalStateException.class, () -> rentalService.createRental(req));
+        verify(bookRepository, never()).findById(anyLong());
+        verify(userCheckoutLockRepository).lock("user");
+    }
 
+    @Test
+    void createRental_losingTheVersionCheck_isRefusedAsUnavailable() {
+        Book book = Book.builder().id(5L).title("B").author("A").genre("G").availabilityStatus(AvailabilityStatus.AVAILABLE).build();
+        when(bookRepository.findById(5L)).thenReturn(Optional.of(book));
+        when(bookRepository.saveAndFlush(book)).thenThrow(new ObjectOptimisticLockingFailureException(Book.class, 5L));
+
+        RentalRequest req = new RentalRequest("user", LocalDate.now(), null, 5L);
+        assertThrows(IllegalStateException.class, () -> rentalService.createRental(req));
+        verify(rentalRepository, never()).save(any(Rental.class));
+        assertThat(meterRegistry.get("bookrental.rentals.checkout.conflicts").counter().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,104 @@
+package lk.bookrental.backend.service;
+
+import lk.bookrental.backend.dto.response.StatsResponse;
+import lk.bookrental.backend.model.ArchivedRental;
+import lk.bookrental.backend.model.AvailabilityStatus;
+import lk.bookrental.backend.model.Book;
+import lk.bookrental.backend.model.Rental;
+import lk.bookrental.backend.repository.ArchivedRentalRepository;
+import lk.bookrental.backend.repository.BookRepository;
+import lk.bookrental.backend.repository.RentalRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+@SpringBootTest
+class StatsServiceImplTest {
+
+    @Autowired
+    private StatsService statsService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private RentalRepository rentalRepository;
+
+    @Autowired
+    private ArchivedRentalRepository archivedRentalRepository;
+
+    @BeforeEach
+    void setup() {
+        Book dune = save("Dune", "Sci-Fi", AvailabilityStatus.UNAVAILABLE);
+        Book neuromancer = save("Neuromancer", "Sci-Fi", AvailabilityStatus.AVAILABLE);
+        save("Emma", "Classic", AvailabilityStatus.AVAILABLE);
+
+        rent("alice", dune, null);
+        rent("alice", neuromancer, LocalDate.now());
+        rent("bob", neuromancer, LocalDate.now());
+    }
+
+    @AfterEach
+    void cleanup() {
+        archivedRentalRepository.deleteAll();
+        rentalRepository.deleteAll();
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    void getStats_countsWithAggregateQueries() {
+        StatsResponse stats = statsService.getStats(true);
+
+        assertThat(stats.getTotalBooks()).isEqualTo(3);
+        assertThat(stats.getAvailableBooks()).isEqualTo(2);
+        assertThat(stats.getUnavailableBooks()).isEqualTo(1);
+        assertThat(stats.getTotalRentals()).isEqualTo(3);
+        assertThat(stats.getActiveRentals()).isEqualTo(1);
+        assertThat(stats.getReturnedRentals()).isEqualTo(2);
+        assertThat(stats.getBooksByGenre()).containsExactly(entry("Sci-Fi", 2L), entry("Classic", 1L));
+        assertThat(stats.getRentalsByGenre()).containsExactly(entry("Sci-Fi", 3L));
+        assertThat(stats.getRentalsByUser()).containsExactly(entry("alice", 2L), entry("bob", 1L));
+    }
+
+    @Test
+    void getStats_countsArchivedRentalsToo() {
+        Book emma = bookRepository.findAll().stream().filter(b -> b.getTitle().equals("Emma")).findFirst().orElseThrow();
+        for (long id = 1; id <= 2; id++) {
+            archivedRentalRepository.save(ArchivedRental.builder().id(-id).username("carol").rentalDate(LocalDate.of(2020, 1, 1))
+                    .returnDate(LocalDate.of(2020, 1, 10)).bookId(emma.getId()).archivedAt(Instant.now()).build());
+        }
+
+        StatsResponse stats = statsService.getStats(true);
+
+        assertThat(stats.getTotalRentals()).isEqualTo(5);
+        assertThat(stats.getActiveRentals()).isEqualTo(1);
+        assertThat(stats.getReturnedRentals()).isEqualTo(4);
+        assertThat(stats.getRentalsByGenre()).containsExactly(entry("Sci-Fi", 3L), entry("Classic", 2L));
+        assertThat(stats.getRentalsByUser()).containsOnly(entry("alice", 2L), entry("carol", 2L), entry("bob", 1L));
+    }
+
+    @Test
+    void getStats_servesCachedSnapshotUnlessFreshIsRequested() {
+        StatsResponse first = statsService.getStats(false);
+        save("Persuasion", "Classic", AvailabilityStatus.AVAILABLE);
+
+        assertThat(statsService.getStats(false).getGeneratedAt()).isEqualTo(first.getGeneratedAt());
+        assertThat(statsService.getStats(true).getTotalBooks()).isEqualTo(first.getTotalBooks() + 1);
+    }
+
+    private Book save(String title, String genre, AvailabilityStatus status) {
+        return bookRepository.save(Book.builder().title(title).author("Author").genre(genre).availabilityStatus(status).build());
+    }
+
+    private void rent(String username, Book book, LocalDate returnDate) {
+        rentalRepository.save(Rental.builder().username(username).rentalDate(LocalDate.now()).returnDate(returnDate).book(book).build());
+    }
+}
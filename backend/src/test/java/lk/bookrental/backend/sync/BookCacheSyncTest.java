@@ -0,0 +1,105 @@
+package lk.bookrental.backend.sync;
+
+import jakarta.persistence.EntityManagerFactory;
+import lk.bookrental.backend.dto.request.BookRequest;
+import lk.bookrental.backend.dto.response.BookResponse;
+import lk.bookrental.backend.dto.response.CacheStatsResponse;
+import lk.bookrental.backend.model.Book;
+import lk.bookrental.backend.model.Tombstone;
+import lk.bookrental.backend.model.TombstoneType;
+import lk.bookrental.backend.repository.BookRepository;
+import lk.bookrental.backend.repository.TombstoneRepository;
+import lk.bookrental.backend.service.BookService;
+import lk.bookrental.backend.service.CacheStatsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class BookCacheSyncTest {
+
+    @Autowired
+    private BookCacheSync bookCacheSync;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private CacheStatsService cacheStatsService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private TombstoneRepository tombstoneRepository;
+
+    @Autowired
+    private ChangeVersions changeVersions;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @AfterEach
+    void cleanup() {
+        bookRepository.deleteAll();
+        tombstoneRepository.deleteAll();
+    }
+
+    @Test
+    void poll_dropsBooksChangedByAnotherInstance() {
+        Long id = bookService.createBook(new BookRequest("Dune", "Frank Herbert", "Sci-Fi", null)).getId();
+        bookCacheSync.poll();
+        bookCacheSync.poll();
+        assertThat(bookService.getBookById(id).getTitle()).isEqualTo("Dune");
+        assertThat(entityManagerFactory.getCache().contains(Book.class, id)).isTrue();
+        String etag = changeVersions.etag(Book.class);
+
+        // another instance writes straight to the shared database
+        new JdbcTemplate(dataSource).update("update books set title = ?, change_version = ?, version = version + 1 where id = ?",
+                "Dune Messiah", changeVersions.current(Book.class), id);
+        assertThat(bookService.getBookById(id).getTitle()).isEqualTo("Dune");
+
+        assertThat(bookCacheSync.poll()).isEqualTo(1);
+        // served through the second-level cache again, which now holds the new row
+        assertThat(bookService.getBookById(id).getTitle()).isEqualTo("Dune Messiah");
+        assertThat(bookService.searchBooks("messiah", 10)).extracting(BookResponse::getId).containsExactly(id);
+        assertThat(changeVersions.etag(Book.class)).isNotEqualTo(etag);
+        // the look-back window sees the row again, but it is only acted on once
+        assertThat(bookCacheSync.poll()).isZero();
+
+        new JdbcTemplate(dataSource).update("delete from books where id = ?", id);
+        tombstoneRepository.save(Tombstone.builder().entityType(TombstoneType.BOOK).entityId(id)
+                .changeVersion(changeVersions.current(Book.class)).build());
+        assertThat(bookCacheSync.poll()).isEqualTo(1);
+        assertThat(bookService.searchBooks("messiah", 10)).isEmpty();
+    }
+
+    @Test
+    void catalogQueriesAndBookLoads_areServedFromTheSecondLevelCache() {
+        Long id = bookService.createBook(new BookRequest("Emma", "Jane Austen", "Classic", null)).getId();
+        entityManagerFactory.getCache().evictAll();
+
+        bookRepository.findById(id);
+        bookRepository.findById(id);
+        bookRepository.findPage(0, "Classic", null, null, Limit.of(10));
+        assertThat(bookRepository.findPage(0, "Classic", null, null, Limit.of(10))).extracting(Book::getId).containsExactly(id);
+
+        assertThat(stats("hibernate.book").getHits()).isPositive();
+        assertThat(stats("hibernate.book-catalog").getHits()).isPositive();
+        assertThat(stats("hibernate.book-catalog").getHitRate()).isGreaterThan(0);
+    }
+
+    private CacheStatsResponse stats(String name) {
+        return cacheStatsService.getCacheStats().stream().filter(s -> s.getName().equals(name)).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,79 @@
+package lk.bookrental.backend.sync;
+
+import lk.bookrental.backend.archive.RentalArchiver;
+import lk.bookrental.backend.model.AvailabilityStatus;
+import lk.bookrental.backend.model.Book;
+import lk.bookrental.backend.model.Rental;
+import lk.bookrental.backend.repository.ArchivedRentalRepository;
+import lk.bookrental.backend.repository.BookRepository;
+import lk.bookrental.backend.repository.RentalRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class RentalChangeSyncTest {
+
+    @Autowired
+    private RentalChangeSync rentalChangeSync;
+
+    @Autowired
+    private RentalArchiver rentalArchiver;
+
+    @Autowired
+    private ChangeVersions changeVersions;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private RentalRepository rentalRepository;
+
+    @Autowired
+    private ArchivedRentalRepository archivedRentalRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @AfterEach
+    void cleanup() {
+        archivedRentalRepository.deleteAll();
+        rentalRepository.deleteAll();
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    void poll_movesRentalETagsForRentalsChangedByAnotherInstance() {
+        Book book = bookRepository.save(Book.builder().title("Dune").author("Frank Herbert").genre("Sci-Fi")
+                .availabilityStatus(AvailabilityStatus.AVAILABLE).build());
+        Long id = rentalRepository.save(Rental.builder().username("alice").rentalDate(LocalDate.of(2023, 3, 1))
+                .dueDate(LocalDate.of(2023, 3, 15)).book(book).build()).getId();
+        rentalChangeSync.poll();
+        rentalChangeSync.poll();
+        String etag = changeVersions.etag(Rental.class);
+        assertThat(rentalChangeSync.poll()).isZero();
+        assertThat(changeVersions.etag(Rental.class)).isEqualTo(etag);
+
+        // another instance returns the rental straight in the shared database
+        new JdbcTemplate(dataSource).update("update rentals set return_date = ?, change_version = ? where id = ?",
+                LocalDate.of(2023, 3, 10), changeVersions.current(Rental.class), id);
+        etag = changeVersions.etag(Rental.class);
+        assertThat(rentalChangeSync.poll()).isEqualTo(1);
+        assertThat(changeVersions.etag(Rental.class)).isNotEqualTo(etag);
+        // the look-back window sees the row again, but it is only acted on once
+        etag = changeVersions.etag(Rental.class);
+        assertThat(rentalChangeSync.poll()).isZero();
+        assertThat(changeVersions.etag(Rental.class)).isEqualTo(etag);
+
+        // archived rows carry the move's version, so a move made elsewhere is noticed from the archive
+        assertThat(rentalArchiver.archive(LocalDate.of(2024, 1, 1))).isEqualTo(1);
+        assertThat(rentalChangeSync.poll()).isEqualTo(1);
+    }
+}
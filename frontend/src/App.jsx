@@ -1,16 +1,30 @@
 import './index.css'
-import { useEffect, useMemo, useState } from 'react'
+import { useEffect, useMemo, useRef, useState } from 'react'
 import Books from './components/Books'
 import Rentals from './components/Rentals'
 import Header from './components/Header'
 import Footer from './components/Footer'
 
+// insert or replace by id, so the same change arriving from a response and from the feed is harmless
+function upsertById(list, item) {
+  const index = list.findIndex(x => x.id === item.id)
+  if (index === -1) return [...list, item]
+  const next = [...list]
+  next[index] = item
+  return next
+}
+
+function removeById(list, id) {
+  return list.filter(x => x.id !== id)
+}
+
 function App() {
   const [books, setBooks] = useState([])
   const [loadingBooks, setLoadingBooks] = useState(false)
   const [bookForm, setBookForm] = useState({ title: '', author: '', genre: '' })
   const [editingBookId, setEditingBookId] = useState(null)
   const [editBookForm, setEditBookForm] = useState({ title: '', author: '', genre: '', availabilityStatus: 'AVAILABLE' })
+  const [stats, setStats] = useState({ totalBooks: 0, availableBooks: 0, activeRentals: 0 })
   const [rentals, setRentals] = useState([])
   const [loadingRentals, setLoadingRentals] = useState(false)
   const [rentalForm, setRentalForm] = useState({ username: '', bookId: '', rentalDate: '', returnDate: '' })
@@ -18,6 +32,8 @@ function App() {
   const [activeTab, setActiveTab] = useState('books')
   const [mobileMenuOpen, setMobileMenuOpen] = useState(false)
   const [isDarkMode, setIsDarkMode] = useState(false)
+  const statsTimer = useRef(null)
+  const syncVersions = useRef({ books: 0, rentals: 0 })
 
   const availableBooks = useMemo(() => books.filter(b => b.availabilityStatus === 'AVAILABLE'), [books])
 
@@ -46,14 +62,39 @@ function App() {
     }
   }
 
-  async function fetchBooks() {
+  // pulls every change since the last sync, page by page; the first sync (since=0) returns the whole collection
+  async function syncCollection(path, key, setList) {
+    let since = syncVersions.current[key]
+    let after = null
+    const firstSync = since === 0
+    const changed = []
+    const deleted = []
+    let page
+    do {
+      const params = new URLSearchParams({ since })
+      if (after !== null) params.set('after', after)
+      const res = await fetch(`${path}?${params}`)
+      if (!res.ok) throw new Error(`Failed to load ${key}`)
+      page = await res.json()
+      changed.push(...page.items)
+      deleted.push(...page.deletedIds)
+      since = page.nextSince
+      after = page.nextAfter
+    } while (page.hasMore)
+    syncVersions.current[key] = since
+    setList(prev => {
+      const byId = new Map((firstSync ? [] : prev).map(x => [x.id, x]))
+      deleted.forEach(id => byId.delete(id))
+      changed.forEach(x => byId.set(x.id, x))
+      return [...byId.values()]
+    })
+  }
+
+  async function syncBooks() {
     setLoadingBooks(true)
     setError('')
     try {
-      const res = await fetch('/api/books')
-      if (!res.ok) throw new Error('Failed to load books')
-      const data = await res.json()
-      setBooks(data)
+      await syncCollection('/api/books', 'books', setBooks)
     } catch (e) {
       setError(e.message)
     } finally {
@@ -61,14 +102,11 @@ function App() {
     }
   }
 
-  async function fetchRentals() {
+  async function syncRentals() {
     setLoadingRentals(true)
     setError('')
     try {
-      const res = await fetch('/api/rentals')
-      if (!res.ok) throw new Error('Failed to load rentals')
-      const data = await res.json()
-      setRentals(data)
+      await syncCollection('/api/rentals', 'rentals', setRentals)
     } catch (e) {
       setError(e.message)
     } finally {
@@ -76,9 +114,62 @@ function App() {
     }
   }
 
+  // dashboard counts come from server-side aggregates instead of filtering the full lists here;
+  // after our own mutations we skip the server's short-lived snapshot so the cards update immediately
+  async function fetchStats(fresh = false) {
+    try {
+      const res = await fetch(fresh ? '/api/stats?fresh=true' : '/api/stats')
+      if (!res.ok) throw new Error('Failed to load stats')
+      setStats(await res.json())
+    } catch (e) {
+      setError(e.message)
+    }
+  }
+
+  function applyBook(book) {
+    setBooks(prev => upsertById(prev, book))
+  }
+
+  function applyRental(rental) {
+    setRentals(prev => upsertById(prev, rental))
+    if (rental.book) applyBook(rental.book)
+  }
+
+  // changes from every terminal arrive over /api/changes; counts are re-read at most once a second
+  function scheduleStats() {
+    clearTimeout(statsTimer.current)
+    statsTimer.current = setTimeout(() => fetchStats(), 1000)
+  }
+
   useEffect(() => {
-    fetchBooks()
-    fetchRentals()
+    const source = new EventSource('/api/changes')
+    // catch up on every (re)connect, since changes made while disconnected were never delivered;
+    // the server ends the stream after a "resync" event and EventSource reconnects by itself
+    source.onopen = () => {
+      syncBooks()
+      syncRentals()
+      fetchStats()
+    }
+    source.addEventListener('book', e => {
+      const change = JSON.parse(e.data)
+      if (change.type === 'DELETED') setBooks(prev => removeById(prev, change.id))
+      else applyBook(change.book)
+      scheduleStats()
+    })
+    source.addEventListener('rental', e => {
+      const change = JSON.parse(e.data)
+      if (change.type === 'DELETED') {
+        setRentals(prev => removeById(prev, change.id))
+        if (change.rental?.book) applyBook(change.rental.book)
+      } else {
+        applyRental(change.rental)
+      }
+      scheduleStats()
+    })
+    return () => {
+      source.close()
+      clearTimeout(statsTimer.current)
+    }
   }, [])
 
   async function handleAddBook(e) {
@@ -95,8 +186,9 @@ function App() {
         })
       })
       if (!res.ok) throw new Error('Failed to add book')
+      applyBook(await res.json())
       setBookForm({ title: '', author: '', genre: '' })
-      await fetchBooks()
+      await fetchStats(true)
     } catch (e) {
       setError(e.message)
     }
@@ -120,8 +212,9 @@ function App() {
         body: JSON.stringify(payload)
       })
       if (!res.ok) throw new Error('Failed to create rental')
+      applyRental(await res.json())
       setRentalForm({ username: '', bookId: '', rentalDate: '', returnDate: '' })
-      await Promise.all([fetchBooks(), fetchRentals()])
+      await fetchStats(true)
     } catch (e) {
       setError(e.message)
     }
@@ -158,8 +251,9 @@ function App() {
         })
       })
       if (!res.ok) throw new Error('Failed to update book')
+      applyBook(await res.json())
       cancelEditBook()
-      await fetchBooks()
+      await fetchStats(true)
     } catch (e) {
       setError(e.message)
     }
@@ -172,8 +266,9 @@ function App() {
     try {
       const res = await fetch(`/api/books/${id}`, { method: 'DELETE' })
       if (!res.ok) throw new Error('Failed to delete book')
+      setBooks(prev => removeById(prev, id))
       if (editingBookId === id) cancelEditBook()
-      await fetchBooks()
+      await fetchStats(true)
     } catch (e) {
       setError(e.message)
     }
@@ -190,7 +285,8 @@ function App() {
         body: JSON.stringify({ returnDate: today })
       })
       if (!res.ok) throw new Error('Failed to mark returned')
-      await Promise.all([fetchRentals(), fetchBooks()])
+      applyRental(await res.json())
+      await fetchStats(true)
     } catch (e) {
       setError(e.message)
     }
@@ -203,7 +299,9 @@ function App() {
     try {
       const res = await fetch(`/api/rentals/${id}`, { method: 'DELETE' })
       if (!res.ok) throw new Error('Failed to delete rental')
-      await Promise.all([fetchRentals(), fetchBooks()])
+      // the freed book arrives as part of the rental's DELETED event on the change feed
+      setRentals(prev => removeById(prev, id))
+      await fetchStats(true)
     } catch (e) {
       setError(e.message)
     }
@@ -252,7 +350,7 @@ function App() {
             <div className="flex items-center justify-between">
               <div>
                 <p className="text-sm font-medium text-gray-600 dark:text-gray-300">Total Books</p>
-                <p className="text-2xl font-bold text-gray-900 dark:text-white">{books.length}</p>
+                <p className="text-2xl font-bold text-gray-900 dark:text-white">{stats.totalBooks}</p>
               </div>
               <div className="w-12 h-12 bg-blue-100 rounded-lg flex items-center justify-center dark:bg-blue-600/20">
                 <svg className="w-6 h-6 text-blue-600 dark:text-blue-400" fill="none" stroke="currentColor" viewBox="0 0 24 24">
@@ -266,7 +364,7 @@ function App() {
             <div className="flex items-center justify-between">
               <div>
                 <p className="text-sm font-medium text-gray-600 dark:text-gray-300">Available</p>
-                <p className="text-2xl font-bold text-green-600 dark:text-green-400">{availableBooks.length}</p>
+                <p className="text-2xl font-bold text-green-600 dark:text-green-400">{stats.availableBooks}</p>
               </div>
               <div className="w-12 h-12 bg-green-100 rounded-lg flex items-center justify-center dark:bg-green-600/20">
                 <svg className="w-6 h-6 text-green-600 dark:text-green-400" fill="none" stroke="currentColor" viewBox="0 0 24 24">
@@ -280,7 +378,7 @@ function App() {
             <div className="flex items-center justify-between">
               <div>
                 <p className="text-sm font-medium text-gray-600 dark:text-gray-300">Active Rentals</p>
-                <p className="text-2xl font-bold text-purple-600 dark:text-purple-400">{rentals.filter(r => !r.returnDate).length}</p>
+                <p className="text-2xl font-bold text-purple-600 dark:text-purple-400">{stats.activeRentals}</p>
               </div>
               <div className="w-12 h-12 bg-purple-100 rounded-lg flex items-center justify-center dark:bg-purple-600/20">
                 <svg className="w-6 h-6 text-purple-600 dark:text-purple-400" fill="none" stroke="currentColor" viewBox="0 0 24 24">
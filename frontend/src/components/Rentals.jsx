@@ -120,7 +120,7 @@ function Rentals({
 											<path strokeLinecap="round" strokeLinejoin="round" strokeWidth={2} d="M12 8v4l3 3m6-3a9 9 0 11-18 0 9 9 0 0118 0z" />
 										</svg>
 									</div>
-									<span className="status-badge status-rented">Rented</span>
+									<span className="status-badge status-rented">{rental.overdueSince ? 'Overdue' : 'Rented'}</span>
 								</div>
 								
 								<h3 className="font-bold text-gray-900 dark:text-white mb-2">{rental.book?.title}</h3>
@@ -132,6 +132,12 @@ function Rentals({
 										<span className="text-gray-500 dark:text-gray-400">Rental Date:</span>
 										<span className="text-gray-700 dark:text-gray-300">{rental.rentalDate}</span>
 									</div>
+									{rental.dueDate && (
+										<div className="flex justify-between text-xs">
+											<span className="text-gray-500 dark:text-gray-400">Due Date:</span>
+											<span className={rental.overdueSince ? 'text-red-600 dark:text-red-400 font-medium' : 'text-gray-700 dark:text-gray-300'}>{rental.dueDate}</span>
+										</div>
+									)}
 									<div className="flex justify-between text-xs">
 										<span className="text-gray-500 dark:text-gray-400">Return Date:</span>
 										<span className="text-gray-700 dark:text-gray-300">Not returned</span>